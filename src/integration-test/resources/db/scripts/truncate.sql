@@ -2,5 +2,6 @@ set foreign_key_checks = 0;
 
 truncate table messaging_setting_value;
 truncate table messaging_setting;
+truncate table messaging_setting_version;
 
 set foreign_key_checks = 1;
\ No newline at end of file
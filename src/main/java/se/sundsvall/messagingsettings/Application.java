@@ -1,6 +1,7 @@
 package se.sundsvall.messagingsettings;
 
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import se.sundsvall.dept44.ServiceApplication;
 import se.sundsvall.dept44.util.jacoco.ExcludeFromJacocoGeneratedCoverageReport;
 
@@ -8,6 +9,7 @@ import static org.springframework.boot.SpringApplication.run;
 
 @ServiceApplication
 @EnableFeignClients
+@EnableScheduling
 @ExcludeFromJacocoGeneratedCoverageReport
 public class Application {
 
@@ -9,9 +9,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Nullable;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -23,25 +29,37 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 import se.sundsvall.dept44.common.validators.annotation.ValidMunicipalityId;
 import se.sundsvall.dept44.common.validators.annotation.ValidUuid;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.violations.ConstraintViolationProblem;
 import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.messagingsettings.api.model.BulkUpdateResponse;
 import se.sundsvall.messagingsettings.api.model.MessagingSettings;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest;
 import se.sundsvall.messagingsettings.api.validation.ValidIdentifier;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
 import se.sundsvall.messagingsettings.service.MessagingSettingsService;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
 
+import static java.lang.Boolean.TRUE;
 import static org.springframework.http.HttpHeaders.LOCATION;
+import static org.springframework.http.HttpStatus.CREATED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.http.MediaType.APPLICATION_PROBLEM_JSON_VALUE;
 import static org.springframework.http.ResponseEntity.created;
 import static org.springframework.http.ResponseEntity.noContent;
 import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable.VALUE_NORM_LENGTH;
+import static se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration.STALE_DATA_ATTRIBUTE;
 
 @Tag(name = "Messaging Settings")
 @RestController
@@ -53,40 +71,96 @@ import static org.springframework.http.ResponseEntity.ok;
 @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 class MessagingSettingsResource {
 
+	static final String X_STALE_DATA = "x-stale-data";
+	static final String X_NEXT_CURSOR = "x-next-cursor";
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+	static final int MAX_BATCH_SIZE = 1000;
+	static final String APPLICATION_JSON_PATCH_VALUE = "application/json-patch+json";
+	static final String APPLICATION_MERGE_PATCH_VALUE = "application/merge-patch+json";
+	static final String FILTER_DESCRIPTION = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax). "
+		+ "Keys and values are matched case-insensitively through an index by the attributes values.keyNorm and values.valueNorm, which hold the key and the first "
+		+ VALUE_NORM_LENGTH + " characters of the value lower-cased and without surrounding whitespace, for example values.keyNorm: 'namespace' and values.valueNorm: 'ns1'. "
+		+ "Numeric and boolean values are compared through the attributes values.numeric and values.bool.";
+
 	private final MessagingSettingsService messagingSettingsService;
+	private final JsonMapper jsonMapper;
 
-	MessagingSettingsResource(final MessagingSettingsService messagingSettingsService) {
+	MessagingSettingsResource(final MessagingSettingsService messagingSettingsService, final JsonMapper jsonMapper) {
 		this.messagingSettingsService = messagingSettingsService;
+		this.jsonMapper = jsonMapper;
 	}
 
 	@GetMapping(produces = APPLICATION_JSON_VALUE)
-	@Operation(summary = "Get messaging settings", description = "Get all messaging settings or the ones that matches provided filter", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+	@Operation(summary = "Get messaging settings", description = "Get all messaging settings or the ones that matches provided filter. Settings are returned in pages when limit or cursor is provided", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true, headers = @Header(name = X_NEXT_CURSOR,
+			description = "Cursor of the next page, present when settings are returned in pages and there are more settings to return", schema = @Schema(type = "string")))
 	})
 	ResponseEntity<List<MessagingSettings>> fetchMessagingSettings(
 		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
 		@Parameter(name = "filter",
-			description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			description = FILTER_DESCRIPTION,
+			example = "created > '2022-09-08T12:00:00.000+02:00' and values.key: 'namespace' and values.value: 'NS1'",
+			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<MessagingSettingEntity> filter,
+		@Parameter(name = "limit", description = "Maximum number of settings to return per page", example = "100") @Nullable @Min(1) @Max(MAX_PAGE_SIZE) @RequestParam(name = "limit", required = false) final Integer limit,
+		@Parameter(name = "cursor", description = "Cursor of the page to return, as returned in header " + X_NEXT_CURSOR + " for the previous page") @Nullable @RequestParam(name = "cursor", required = false) final String cursor) {
+
+		if (limit == null && cursor == null) {
+			return ok(messagingSettingsService.fetchMessagingSettings(municipalityId, filter));
+		}
+
+		final var page = messagingSettingsService.fetchMessagingSettingsPage(municipalityId, filter, Optional.ofNullable(limit).orElse(DEFAULT_PAGE_SIZE), cursor);
+		final var response = ok();
+		if (page.nextCursor() != null) {
+			response.header(X_NEXT_CURSOR, page.nextCursor());
+		}
+		return response.body(page.settings());
+	}
+
+	@GetMapping(path = "/export", produces = APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Export messaging settings", description = "Export all messaging settings or the ones that matches provided filter as newline delimited JSON, streamed one setting per line", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", content = @Content(mediaType = APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = MessagingSettings.class)))
+	})
+	ResponseEntity<StreamingResponseBody> exportMessagingSettings(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "filter",
+			description = FILTER_DESCRIPTION,
 			example = "created > '2022-09-08T12:00:00.000+02:00' and values.key: 'namespace' and values.value: 'NS1'",
 			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<MessagingSettingEntity> filter) {
 
-		return ok(messagingSettingsService.fetchMessagingSettings(municipalityId, filter));
+		return ok()
+			.contentType(APPLICATION_NDJSON)
+			.body(outputStream -> {
+				try (final var settings = messagingSettingsService.streamMessagingSettings(municipalityId, filter)) {
+					for (final var iterator = settings.iterator(); iterator.hasNext();) {
+						outputStream.write(jsonMapper.writeValueAsBytes(iterator.next()));
+						outputStream.write('\n');
+					}
+				}
+			});
 	}
 
 	@GetMapping(path = "/user", produces = APPLICATION_JSON_VALUE)
 	@Operation(summary = "Get messaging settings for organization connected to a user", description = "Get messaging settings for the organization connected to the provided user.", responses = {
-		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true, headers = @Header(name = X_STALE_DATA,
+			description = "Present with value true when the organization of the user was resolved from last known data, as the employee service was unavailable", schema = @Schema(type = "string"))),
 		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
 	})
 	ResponseEntity<List<MessagingSettings>> getMessagingSettingsForUser(
 		@Parameter(name = "filter",
-			description = "Syntax description: [spring-filter](https://github.com/turkraft/spring-filter/blob/85730f950a5f8623159cc0eb4d737555f9382bb7/README.md#syntax)",
+			description = FILTER_DESCRIPTION,
 			example = "created > '2022-09-08T12:00:00.000+02:00' and values.key: 'namespace' and values.value: 'NS1'",
 			schema = @Schema(implementation = String.class)) @Nullable @Filter final Specification<MessagingSettingEntity> filter,
 		@Parameter(name = Identifier.HEADER_NAME, description = "User identity", example = "joe01doe;type=adAccount") @RequestHeader(name = Identifier.HEADER_NAME) @NotNull @ValidIdentifier final String xSentBy,
-		@PathVariable @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId final String municipalityId) {
+		@PathVariable @Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId final String municipalityId,
+		final HttpServletRequest request) {
 
-		return ok(messagingSettingsService.fetchMessagingSettingsForUser(municipalityId, Identifier.get(), filter));
+		final var settings = messagingSettingsService.fetchMessagingSettingsForUser(municipalityId, Identifier.get(), filter);
+		final var response = ok();
+		if (TRUE.equals(request.getAttribute(STALE_DATA_ATTRIBUTE))) {
+			response.header(X_STALE_DATA, TRUE.toString());
+		}
+		return response.body(settings);
 	}
 
 	@PostMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_PROBLEM_JSON_VALUE)
@@ -105,6 +179,20 @@ class MessagingSettingsResource {
 		return created(uriComponentsBuilder.path("/{municipalityId}/{id}").buildAndExpand(municipalityId, result.getId()).toUri()).build();
 	}
 
+	@PostMapping(path = "/batch", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Create messaging settings", description = "Create new messaging settings in a single transaction. Returns the IDs of the created settings in the same order as the requests", responses = {
+		@ApiResponse(responseCode = "201", description = "Created", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "400", description = "Bad Request", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(oneOf = {
+			Problem.class, ConstraintViolationProblem.class
+		})))
+	})
+	ResponseEntity<List<String>> createMessagingSettings(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Valid @NotEmpty @Size(max = MAX_BATCH_SIZE) @RequestBody final List<@Valid @NotNull MessagingSettingsRequest> requests) {
+
+		return status(CREATED).body(messagingSettingsService.createMessagingSettings(municipalityId, requests));
+	}
+
 	@GetMapping(path = "/{id}", produces = APPLICATION_JSON_VALUE)
 	@Operation(summary = "Get messaging setting by ID", description = "Get a specific messaging setting by ID", responses = {
 		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
@@ -117,6 +205,24 @@ class MessagingSettingsResource {
 		return ok(messagingSettingsService.getMessagingSettingById(municipalityId, id));
 	}
 
+	@PatchMapping(consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Update messaging settings", description = "Update all messaging settings that matches provided filter, by adding the provided values or replacing existing values with the same key", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true)
+	})
+	ResponseEntity<BulkUpdateResponse> updateMessagingSettings(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "filter",
+			description = FILTER_DESCRIPTION,
+			example = "values.key: 'namespace' and values.value: 'NS1'",
+			required = true,
+			schema = @Schema(implementation = String.class)) @NotNull @Filter final Specification<MessagingSettingEntity> filter,
+		@Valid @NotNull @RequestBody final MessagingSettingsRequest request) {
+
+		return ok(BulkUpdateResponse.builder()
+			.withAffected(messagingSettingsService.updateMessagingSettings(municipalityId, filter, request))
+			.build());
+	}
+
 	@PatchMapping(path = "/{id}", consumes = APPLICATION_JSON_VALUE, produces = APPLICATION_JSON_VALUE)
 	@Operation(summary = "Update messaging setting", description = "Update an existing messaging setting", responses = {
 		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
@@ -130,6 +236,33 @@ class MessagingSettingsResource {
 		return ok(messagingSettingsService.updateMessagingSetting(municipalityId, id, request));
 	}
 
+	@PatchMapping(path = "/{id}", consumes = APPLICATION_JSON_PATCH_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Patch messaging setting", description = "Patch an existing messaging setting with a JSON Patch (RFC 6902) document, applied to the values indexed by key, e.g. [{\"op\": \"replace\", \"path\": \"/sms_sender/value\", \"value\": \"Sundsvall\"}]. All operations are applied in one transaction", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class))),
+		@ApiResponse(responseCode = "409", description = "Conflict", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+	})
+	ResponseEntity<MessagingSettings> patchMessagingSetting(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "id", description = "Messaging setting ID", example = "c9383d10-6fb5-4fc1-bd0a-50bf5a24d5b7") @ValidUuid @PathVariable final String id,
+		@NotNull @RequestBody final JsonNode patch) {
+
+		return ok(messagingSettingsService.patchMessagingSetting(municipalityId, id, patch));
+	}
+
+	@PatchMapping(path = "/{id}", consumes = APPLICATION_MERGE_PATCH_VALUE, produces = APPLICATION_JSON_VALUE)
+	@Operation(summary = "Merge patch messaging setting", description = "Patch an existing messaging setting with a JSON Merge Patch (RFC 7396) document, applied to the values indexed by key, e.g. {\"sms_sender\": {\"value\": \"Sundsvall\", \"type\": \"STRING\"}}. Keys set to null are removed", responses = {
+		@ApiResponse(responseCode = "200", description = "OK", useReturnTypeSchema = true),
+		@ApiResponse(responseCode = "404", description = "Not Found", content = @Content(mediaType = APPLICATION_PROBLEM_JSON_VALUE, schema = @Schema(implementation = Problem.class)))
+	})
+	ResponseEntity<MessagingSettings> mergePatchMessagingSetting(
+		@Parameter(name = "municipalityId", description = "Municipality ID", example = "2281") @ValidMunicipalityId @PathVariable final String municipalityId,
+		@Parameter(name = "id", description = "Messaging setting ID", example = "c9383d10-6fb5-4fc1-bd0a-50bf5a24d5b7") @ValidUuid @PathVariable final String id,
+		@NotNull @RequestBody final JsonNode patch) {
+
+		return ok(messagingSettingsService.mergePatchMessagingSetting(municipalityId, id, patch));
+	}
+
 	@DeleteMapping(path = "/{id}", produces = APPLICATION_PROBLEM_JSON_VALUE)
 	@Operation(summary = "Delete messaging setting", description = "Delete a messaging setting by ID", responses = {
 		@ApiResponse(responseCode = "204", description = "No Content"),
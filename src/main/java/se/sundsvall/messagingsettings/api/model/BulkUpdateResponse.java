@@ -0,0 +1,19 @@
+package se.sundsvall.messagingsettings.api.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+@Builder(setterPrefix = "with")
+@Schema(description = "Bulk update response")
+public class BulkUpdateResponse {
+
+	@Schema(description = "Number of messaging settings that were updated", examples = "42")
+	private Integer affected;
+}
@@ -0,0 +1,22 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+
+public interface MessagingSettingBulkRepository {
+
+	/**
+	 * Upsert values into every messaging setting matching the specification, within one transaction. Values replace
+	 * existing values with the same key, and other values are preserved. The values are written by set-based statements
+	 * for each chunk of matching settings.
+	 *
+	 * @param  specification the specification to match
+	 * @param  values        the values to upsert
+	 * @return               the number of settings that were updated
+	 */
+	@Transactional
+	int upsertValues(Specification<MessagingSettingEntity> specification, List<MessagingSettingValueEmbeddable> values);
+}
@@ -0,0 +1,80 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
+
+class MessagingSettingBulkRepositoryImpl implements MessagingSettingBulkRepository {
+
+	static final int CHUNK_SIZE = 1_000;
+
+	private static final String DELETE_VALUES = """
+		delete from messaging_setting_value
+		where messaging_setting_id in (:ids) and binary `key` in (:keys)
+		""";
+
+	private static final String INSERT_VALUE = """
+		insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+		select id, :key, :value, :type from messaging_setting where id in (:ids)
+		""";
+
+	private static final String TOUCH_SETTINGS = """
+		update messaging_setting set updated = utc_timestamp(6) where id in (:ids)
+		""";
+
+	private final EntityManager entityManager;
+
+	MessagingSettingBulkRepositoryImpl(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * The matching settings are resolved to ids first, as the specification can only be rendered through the criteria
+	 * API, while the values (being an element collection) can only be written through native statements. The ids are
+	 * written in chunks to keep the parameter lists of the statements bounded.
+	 */
+	@Override
+	public int upsertValues(final Specification<MessagingSettingEntity> specification, final List<MessagingSettingValueEmbeddable> values) {
+		final var ids = findIds(specification);
+
+		var affected = 0;
+		for (var from = 0; from < ids.size(); from += CHUNK_SIZE) {
+			affected += upsertValues(ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())), values);
+		}
+		return affected;
+	}
+
+	private int upsertValues(final List<String> ids, final List<MessagingSettingValueEmbeddable> values) {
+		entityManager.createNativeQuery(DELETE_VALUES)
+			.setParameter("ids", ids)
+			.setParameter("keys", values.stream().map(MessagingSettingValueEmbeddable::getKey).distinct().toList())
+			.executeUpdate();
+
+		values.forEach(value -> entityManager.createNativeQuery(INSERT_VALUE)
+			.setParameter("key", value.getKey())
+			.setParameter("value", value.getValue())
+			.setParameter("type", value.getType().name())
+			.setParameter("ids", ids)
+			.executeUpdate());
+
+		return entityManager.createNativeQuery(TOUCH_SETTINGS)
+			.setParameter("ids", ids)
+			.executeUpdate();
+	}
+
+	private List<String> findIds(final Specification<MessagingSettingEntity> specification) {
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createQuery(String.class);
+		final var entity = query.from(MessagingSettingEntity.class);
+
+		query.select(entity.get(ID))
+			.distinct(true)
+			.where(specification.toPredicate(entity, query, cb));
+
+		return entityManager.createQuery(query).getResultList();
+	}
+}
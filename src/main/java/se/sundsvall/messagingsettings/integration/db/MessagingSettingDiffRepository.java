@@ -0,0 +1,24 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+
+public interface MessagingSettingDiffRepository {
+
+	/**
+	 * Update the values of a messaging setting within one transaction, writing only the keys whose values differ from the
+	 * stored values
+	 *
+	 * @param  municipalityId the municipality ID
+	 * @param  id             the messaging setting ID
+	 * @param  update         function returning the updated values from the stored values
+	 * @return                an Optional containing the setting as it was before the update, or an empty Optional if no
+	 *                        setting was found
+	 */
+	@Transactional
+	Optional<MessagingSettingEntity> updateValues(String municipalityId, String id, UnaryOperator<List<MessagingSettingValueEmbeddable>> update);
+}
@@ -0,0 +1,140 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import jakarta.persistence.EntityManager;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
+
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+
+class MessagingSettingDiffRepositoryImpl implements MessagingSettingDiffRepository {
+
+	private static final String INSERT_VALUE = """
+		insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+		values (:id, :key, :value, :type)
+		""";
+
+	private static final String UPDATE_VALUE = """
+		update messaging_setting_value set `value` = :value, `type` = :type
+		where messaging_setting_id = :id and binary `key` = :key
+		""";
+
+	private static final String DELETE_VALUES = """
+		delete from messaging_setting_value
+		where messaging_setting_id = :id and binary `key` = :key
+		""";
+
+	private static final String TOUCH_SETTING = """
+		update messaging_setting set updated = utc_timestamp(6) where id = :id
+		""";
+
+	private final EntityManager entityManager;
+
+	MessagingSettingDiffRepositoryImpl(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	/**
+	 * The values are an unordered element collection, which Hibernate can only write by deleting and re-inserting every
+	 * value of the setting. The stored setting is therefore detached once read, and the changed keys are written through
+	 * native statements instead. The update is applied to a copy of the stored values, so that they can be returned as
+	 * they were.
+	 */
+	@Override
+	public Optional<MessagingSettingEntity> updateValues(final String municipalityId, final String id, final UnaryOperator<List<MessagingSettingValueEmbeddable>> update) {
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createQuery(MessagingSettingEntity.class);
+		final var entity = query.from(MessagingSettingEntity.class);
+		query.where(matchesMunicipalityId(municipalityId).and(matchesIds(List.of(id))).toPredicate(entity, query, cb));
+
+		final var previous = entityManager.createQuery(query).getResultStream().findFirst();
+		previous.ifPresent(setting -> {
+			entityManager.detach(setting);
+			if (writeChangedKeys(id, setting.getValues(), update.apply(List.copyOf(setting.getValues())))) {
+				entityManager.createNativeQuery(TOUCH_SETTING)
+					.setParameter("id", id)
+					.executeUpdate();
+			}
+		});
+		return previous;
+	}
+
+	private boolean writeChangedKeys(final String id, final List<MessagingSettingValueEmbeddable> storedValues, final List<MessagingSettingValueEmbeddable> updatedValues) {
+		final var storedByKey = groupByKey(storedValues);
+		final var updatedByKey = groupByKey(updatedValues);
+		final var keys = new LinkedHashSet<>(storedByKey.keySet());
+		keys.addAll(updatedByKey.keySet());
+		var changed = false;
+
+		for (final var key : keys) {
+			final var stored = storedByKey.getOrDefault(key, List.of());
+			final var updated = updatedByKey.getOrDefault(key, List.of());
+
+			if (hasSameContent(stored, updated)) {
+				continue;
+			}
+
+			if (stored.size() == 1 && updated.size() == 1) {
+				update(id, updated.getFirst());
+			} else {
+				if (!stored.isEmpty()) {
+					delete(id, key);
+				}
+				updated.forEach(value -> insert(id, value));
+			}
+			changed = true;
+		}
+		return changed;
+	}
+
+	private static Map<String, List<MessagingSettingValueEmbeddable>> groupByKey(final List<MessagingSettingValueEmbeddable> values) {
+		return values.stream().collect(groupingBy(MessagingSettingValueEmbeddable::getKey, LinkedHashMap::new, toList()));
+	}
+
+	/**
+	 * Values are compared by value and type only, as the remaining columns are either the key or derived by the database
+	 */
+	private static boolean hasSameContent(final List<MessagingSettingValueEmbeddable> stored, final List<MessagingSettingValueEmbeddable> requested) {
+		return contentOf(stored).equals(contentOf(requested));
+	}
+
+	private static Map<Entry<String, ValueType>, Long> contentOf(final List<MessagingSettingValueEmbeddable> values) {
+		return values.stream().collect(groupingBy(value -> Map.entry(value.getValue(), value.getType()), counting()));
+	}
+
+	private void insert(final String id, final MessagingSettingValueEmbeddable value) {
+		entityManager.createNativeQuery(INSERT_VALUE)
+			.setParameter("id", id)
+			.setParameter("key", value.getKey())
+			.setParameter("value", value.getValue())
+			.setParameter("type", value.getType().name())
+			.executeUpdate();
+	}
+
+	private void update(final String id, final MessagingSettingValueEmbeddable value) {
+		entityManager.createNativeQuery(UPDATE_VALUE)
+			.setParameter("id", id)
+			.setParameter("key", value.getKey())
+			.setParameter("value", value.getValue())
+			.setParameter("type", value.getType().name())
+			.executeUpdate();
+	}
+
+	private void delete(final String id, final String key) {
+		entityManager.createNativeQuery(DELETE_VALUES)
+			.setParameter("id", id)
+			.setParameter("key", key)
+			.executeUpdate();
+	}
+}
@@ -0,0 +1,28 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+
+public interface MessagingSettingKeysetRepository {
+
+	/**
+	 * Find the distinct ids of the first messaging settings matching the specification, ordered by creation time and id
+	 *
+	 * @param  specification the specification to match
+	 * @param  limit         the maximum number of ids to return
+	 * @return               a list of ids ordered by creation time and id
+	 */
+	List<String> findIdsOrderedByCreatedAndId(Specification<MessagingSettingEntity> specification, int limit);
+
+	/**
+	 * Stream all messaging settings matching the specification, ordered by creation time and id and read lazily in
+	 * detached batches. The returned stream must be closed.
+	 *
+	 * @param  specification the specification to match
+	 * @param  batchSize     the number of settings to read per batch
+	 * @return               a stream of settings ordered by creation time and id
+	 */
+	Stream<MessagingSettingEntity> streamAll(Specification<MessagingSettingEntity> specification, int batchSize);
+}
@@ -0,0 +1,95 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.CREATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.isAfter;
+
+class MessagingSettingKeysetRepositoryImpl implements MessagingSettingKeysetRepository {
+
+	private final EntityManager entityManager;
+
+	MessagingSettingKeysetRepositoryImpl(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public List<String> findIdsOrderedByCreatedAndId(final Specification<MessagingSettingEntity> specification, final int limit) {
+		return findKeys(specification, limit).stream()
+			.map(key -> key.get(ID, String.class))
+			.toList();
+	}
+
+	/**
+	 * Every batch is detached from the persistence context once loaded, so that a stream consumed within a surrounding
+	 * unit of work does not accumulate managed entities.
+	 */
+	@Override
+	public Stream<MessagingSettingEntity> streamAll(final Specification<MessagingSettingEntity> specification, final int batchSize) {
+		return Stream.iterate(
+			findBatch(specification, specification, batchSize),
+			Objects::nonNull,
+			batch -> Optional.ofNullable(batch.next())
+				.map(next -> findBatch(specification, next, batchSize))
+				.orElse(null))
+			.flatMap(batch -> batch.settings().stream());
+	}
+
+	/**
+	 * Keys are selected distinct, as a specification joining the values matches a setting once for every matching value.
+	 */
+	private List<Tuple> findKeys(final Specification<MessagingSettingEntity> specification, final int limit) {
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createTupleQuery();
+		final var entity = query.from(MessagingSettingEntity.class);
+
+		query.multiselect(entity.get(CREATED).alias(CREATED), entity.get(ID).alias(ID))
+			.distinct(true)
+			.where(specification.toPredicate(entity, query, cb))
+			.orderBy(cb.asc(entity.get(CREATED)), cb.asc(entity.get(ID)));
+
+		return entityManager.createQuery(query)
+			.setMaxResults(limit)
+			.getResultList();
+	}
+
+	/**
+	 * Whether there is a next batch is decided by the number of keys read rather than the number of settings loaded, as
+	 * settings deleted in between the two reads would otherwise end the stream early.
+	 */
+	private Batch findBatch(final Specification<MessagingSettingEntity> specification, final Specification<MessagingSettingEntity> position, final int batchSize) {
+		final var keys = findKeys(position, batchSize);
+		if (keys.isEmpty()) {
+			return new Batch(List.of(), null);
+		}
+
+		final var last = keys.getLast();
+		final var next = keys.size() < batchSize ? null : specification.and(isAfter(last.get(CREATED, OffsetDateTime.class), last.get(ID, String.class)));
+		final var ids = keys.stream()
+			.map(key -> key.get(ID, String.class))
+			.toList();
+
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createQuery(MessagingSettingEntity.class);
+		final var entity = query.from(MessagingSettingEntity.class);
+
+		query.where(entity.get(ID).in(ids))
+			.orderBy(cb.asc(entity.get(CREATED)), cb.asc(entity.get(ID)));
+
+		final var settings = entityManager.createQuery(query).getResultList();
+		settings.forEach(entityManager::detach);
+		return new Batch(settings, next);
+	}
+
+	private record Batch(List<MessagingSettingEntity> settings, Specification<MessagingSettingEntity> next) {
+	}
+}
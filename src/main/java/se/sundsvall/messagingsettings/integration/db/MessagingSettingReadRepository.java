@@ -0,0 +1,31 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+
+public interface MessagingSettingReadRepository {
+
+	/**
+	 * Find all messaging settings matching the specification, read as scalar projections straight into the API model
+	 *
+	 * @param  specification the specification to match
+	 * @return               a list of matching settings
+	 */
+	@Transactional(readOnly = true)
+	List<MessagingSettings> findAllAsMessagingSettings(Specification<MessagingSettingEntity> specification);
+
+	/**
+	 * Find all messaging settings matching the specification in the provided order, projected straight into the API model.
+	 *
+	 * @param  specification the specification to match
+	 * @param  sort          the order of the returned settings
+	 * @return               a list of matching settings in the provided order
+	 * @see                  #findAllAsMessagingSettings(Specification)
+	 */
+	@Transactional(readOnly = true)
+	List<MessagingSettings> findAllAsMessagingSettings(Specification<MessagingSettingEntity> specification, Sort sort);
+}
@@ -0,0 +1,103 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.CREATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.MUNICIPALITY_ID;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.UPDATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.VALUES;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.KEY;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.TYPE;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.VALUE;
+
+class MessagingSettingReadRepositoryImpl implements MessagingSettingReadRepository {
+
+	private final EntityManager entityManager;
+
+	MessagingSettingReadRepositoryImpl(final EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public List<MessagingSettings> findAllAsMessagingSettings(final Specification<MessagingSettingEntity> specification) {
+		return findAllAsMessagingSettings(specification, Sort.unsorted());
+	}
+
+	/**
+	 * Settings are read with one statement and the values of all settings with another, independent of the number of
+	 * matching settings.
+	 */
+	@Override
+	public List<MessagingSettings> findAllAsMessagingSettings(final Specification<MessagingSettingEntity> specification, final Sort sort) {
+		final var settings = findSettings(specification, sort);
+		if (settings.isEmpty()) {
+			return List.of();
+		}
+
+		final var valuesBySettingId = findValues(settings.stream().map(tuple -> tuple.get(ID, String.class)).toList());
+
+		return settings.stream()
+			.map(tuple -> MessagingSettings.builder()
+				.withId(tuple.get(ID, String.class))
+				.withMunicipalityId(tuple.get(MUNICIPALITY_ID, String.class))
+				.withValues(valuesBySettingId.getOrDefault(tuple.get(ID, String.class), List.of()))
+				.withCreated(tuple.get(CREATED, OffsetDateTime.class))
+				.withUpdated(tuple.get(UPDATED, OffsetDateTime.class))
+				.build())
+			.toList();
+	}
+
+	private List<Tuple> findSettings(final Specification<MessagingSettingEntity> specification, final Sort sort) {
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createTupleQuery();
+		final var entity = query.from(MessagingSettingEntity.class);
+
+		query.multiselect(
+			entity.get(ID).alias(ID),
+			entity.get(MUNICIPALITY_ID).alias(MUNICIPALITY_ID),
+			entity.get(CREATED).alias(CREATED),
+			entity.get(UPDATED).alias(UPDATED))
+			.where(specification.toPredicate(entity, query, cb))
+			.orderBy(toOrders(sort, entity, cb))
+			.distinct(true);
+
+		return entityManager.createQuery(query).getResultList();
+	}
+
+	private Map<String, List<MessagingSettingValue>> findValues(final List<String> settingIds) {
+		final var cb = entityManager.getCriteriaBuilder();
+		final var query = cb.createTupleQuery();
+		final var entity = query.from(MessagingSettingEntity.class);
+		final var value = entity.<MessagingSettingEntity, MessagingSettingValueEmbeddable>join(VALUES);
+
+		query.multiselect(
+			entity.get(ID).alias(ID),
+			value.get(KEY).alias(KEY),
+			value.get(VALUE).alias(VALUE),
+			value.get(TYPE).alias(TYPE))
+			.where(entity.get(ID).in(settingIds));
+
+		return entityManager.createQuery(query).getResultStream()
+			.collect(groupingBy(tuple -> tuple.get(ID, String.class), mapping(tuple -> MessagingSettingValue.builder()
+				.withKey(tuple.get(KEY, String.class))
+				.withValue(tuple.get(VALUE, String.class))
+				.withType(tuple.get(TYPE, ValueType.class).name())
+				.build(), toList())));
+	}
+}
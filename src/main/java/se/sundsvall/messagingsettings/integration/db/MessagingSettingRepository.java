@@ -1,21 +1,70 @@
 package se.sundsvall.messagingsettings.integration.db;
 
-import java.util.Optional;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
 
 @Repository
-public interface MessagingSettingRepository extends JpaRepository<MessagingSettingEntity, String>, JpaSpecificationExecutor<MessagingSettingEntity> {
+public interface MessagingSettingRepository extends JpaRepository<MessagingSettingEntity, String>, JpaSpecificationExecutor<MessagingSettingEntity>, MessagingSettingKeysetRepository, MessagingSettingReadRepository, MessagingSettingBulkRepository, MessagingSettingDiffRepository {
 
 	/**
-	 * Find a messaging setting by ID and municipality ID
+	 * Check if a messaging setting exists by ID and municipality ID
 	 *
 	 * @param  id             the messaging setting ID
 	 * @param  municipalityId the municipality ID
-	 * @return                an Optional containing the entity if found
+	 * @return                true if the setting exists
 	 */
-	Optional<MessagingSettingEntity> findByIdAndMunicipalityId(String id, String municipalityId);
+	boolean existsByIdAndMunicipalityId(String id, String municipalityId);
+
+	/**
+	 * Find the department ids of a messaging setting by ID and municipality ID, without loading the setting
+	 *
+	 * @param  id             the messaging setting ID
+	 * @param  municipalityId the municipality ID
+	 * @return                the department ids of the setting, or an empty list if the setting has none or is not found
+	 */
+	@Query(value = """
+		select v.`value` from messaging_setting_value v
+		join messaging_setting s on s.id = v.messaging_setting_id
+		where s.id = :id and s.municipality_id = :municipalityId and v.key_norm = 'department_id'
+		""", nativeQuery = true)
+	List<String> findDepartmentIdsByIdAndMunicipalityId(@Param("id") String id, @Param("municipalityId") String municipalityId);
+
+	/**
+	 * Delete a messaging setting by ID and municipality ID, without loading it. The values of the setting are removed by
+	 * the database, as the foreign key cascades deletes.
+	 *
+	 * @param  id             the messaging setting ID
+	 * @param  municipalityId the municipality ID
+	 * @return                the number of deleted settings
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = "delete from messaging_setting where id = :id and municipality_id = :municipalityId", nativeQuery = true)
+	int deleteByIdAndMunicipalityId(@Param("id") String id, @Param("municipalityId") String municipalityId);
+
+	/**
+	 * Delete all values with the provided key from a messaging setting by ID and municipality ID, without loading the
+	 * setting. Keys are matched case-sensitively.
+	 *
+	 * @param  id             the messaging setting ID
+	 * @param  municipalityId the municipality ID
+	 * @param  key            the key to delete
+	 * @return                the number of deleted values
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = """
+		delete v from messaging_setting_value v
+		join messaging_setting s on s.id = v.messaging_setting_id
+		where s.id = :id and s.municipality_id = :municipalityId and binary v.`key` = :key
+		""", nativeQuery = true)
+	int deleteValuesByIdAndMunicipalityIdAndKey(@Param("id") String id, @Param("municipalityId") String municipalityId, @Param("key") String key);
 
 }
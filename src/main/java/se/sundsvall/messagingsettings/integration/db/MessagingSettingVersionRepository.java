@@ -0,0 +1,27 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+
+@Repository
+public interface MessagingSettingVersionRepository extends JpaRepository<MessagingSettingVersionEntity, String> {
+
+	/**
+	 * Increment the version of the messaging settings within a municipality, creating the version if it does not exist
+	 *
+	 * @param municipalityId the municipality ID
+	 */
+	@Modifying
+	@Transactional
+	@Query(value = """
+		insert into messaging_setting_version (municipality_id, version, updated)
+		values (:municipalityId, 1, utc_timestamp(6))
+		on duplicate key update version = version + 1, updated = utc_timestamp(6)
+		""", nativeQuery = true)
+	void incrementVersion(@Param("municipalityId") String municipalityId);
+}
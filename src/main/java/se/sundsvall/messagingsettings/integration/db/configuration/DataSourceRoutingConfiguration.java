@@ -0,0 +1,58 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Replaces the auto-configured datasource with one that routes read-only transactions to a read replica, when a replica
+ * url is configured. Both the primary and the replica pool are configured from the spring.datasource.hikari settings
+ * and publish the Hikari pool metrics, tagged with the pool name primary respectively replica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "integration.db.replica", name = "url")
+public class DataSourceRoutingConfiguration {
+
+	static final String PRIMARY_POOL_NAME = "primary";
+	static final String REPLICA_POOL_NAME = "replica";
+	private static final String HIKARI_PREFIX = "spring.datasource.hikari";
+
+	@Bean
+	DataSource dataSource(final DataSourceProperties dataSourceProperties, final ReplicaProperties replicaProperties, final Environment environment, final MeterRegistry meterRegistry) {
+		final var primary = createPool(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+			dataSourceProperties, PRIMARY_POOL_NAME, environment, meterRegistry);
+		final var replica = createPool(replicaProperties.url(),
+			Optional.ofNullable(replicaProperties.username()).orElse(dataSourceProperties.determineUsername()),
+			Optional.ofNullable(replicaProperties.password()).orElse(dataSourceProperties.determinePassword()),
+			dataSourceProperties, REPLICA_POOL_NAME, environment, meterRegistry);
+		replica.setReadOnly(true);
+
+		return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica, replicaProperties.readYourWritesWindow(), meterRegistry));
+	}
+
+	private static HikariDataSource createPool(final String url, final String username, final String password, final DataSourceProperties dataSourceProperties,
+		final String poolName, final Environment environment, final MeterRegistry meterRegistry) {
+
+		final var pool = dataSourceProperties.initializeDataSourceBuilder()
+			.type(HikariDataSource.class)
+			.url(url)
+			.username(username)
+			.password(password)
+			.build();
+
+		Binder.get(environment).bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+		pool.setPoolName(poolName);
+		pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		return pool;
+	}
+}
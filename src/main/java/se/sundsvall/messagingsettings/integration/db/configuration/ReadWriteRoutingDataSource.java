@@ -0,0 +1,80 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to the replica datasource and all other connections to the primary
+ * datasource. Read-only transactions started within the read-your-writes window of a write made by this instance are
+ * routed to the primary datasource as well, so that the instance never reads data older than its own writes.
+ * <p>
+ * The routing decision is made when a connection is obtained, hence the datasource must be wrapped in a lazy connection
+ * proxy for the read-only flag of the transaction to be known at that point.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+	static final String METRIC_ROUTES = "messagingsettings.datasource.routes";
+
+	enum Route {
+		PRIMARY,
+		REPLICA
+	}
+
+	private final long readYourWritesWindowNanos;
+	private final AtomicLong lastWriteNanos;
+	private final Map<Route, Counter> routeCounters;
+
+	public ReadWriteRoutingDataSource(final DataSource primary, final DataSource replica, final Duration readYourWritesWindow, final MeterRegistry meterRegistry) {
+		this.readYourWritesWindowNanos = readYourWritesWindow.toNanos();
+		this.lastWriteNanos = new AtomicLong(System.nanoTime() - readYourWritesWindowNanos);
+		this.routeCounters = Map.of(
+			Route.PRIMARY, Counter.builder(METRIC_ROUTES).tag("route", "primary").register(meterRegistry),
+			Route.REPLICA, Counter.builder(METRIC_ROUTES).tag("route", "replica").register(meterRegistry));
+
+		setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		final var route = route();
+		routeCounters.get(route).increment();
+		return route;
+	}
+
+	private Route route() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return Route.PRIMARY;
+		}
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			markWritten();
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				// The window is restarted when the transaction completes, as that is when the write becomes visible to others
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(final int status) {
+						markWritten();
+					}
+				});
+			}
+			return Route.PRIMARY;
+		}
+		return isWithinReadYourWritesWindow() ? Route.PRIMARY : Route.REPLICA;
+	}
+
+	private void markWritten() {
+		lastWriteNanos.set(System.nanoTime());
+	}
+
+	private boolean isWithinReadYourWritesWindow() {
+		return System.nanoTime() - lastWriteNanos.get() < readYourWritesWindowNanos;
+	}
+}
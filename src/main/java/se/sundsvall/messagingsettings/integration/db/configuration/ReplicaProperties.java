@@ -0,0 +1,23 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the read replica that read-only transactions are routed to. Routing is only enabled when a url is
+ * configured.
+ *
+ * @param url                  the JDBC url of the replica
+ * @param username             the username of the replica, defaults to the username of the primary datasource
+ * @param password             the password of the replica, defaults to the password of the primary datasource
+ * @param readYourWritesWindow how long after a write by this instance read-only transactions are still routed to the
+ *                             primary datasource, which should exceed the replication lag of the replica
+ */
+@ConfigurationProperties(prefix = "integration.db.replica")
+public record ReplicaProperties(
+	String url,
+	String username,
+	String password,
+	@DefaultValue("PT5S") Duration readYourWritesWindow) {
+}
@@ -1,5 +1,8 @@
 package se.sundsvall.messagingsettings.integration.db.mapper;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Objects;
 import se.sundsvall.messagingsettings.api.model.MessagingSettings;
@@ -10,9 +13,12 @@ import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntit
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
 import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Collections.emptyList;
+import static java.util.Locale.ROOT;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public final class EntityMapper {
 
@@ -64,41 +70,26 @@ public final class EntityMapper {
 	}
 
 	/**
-	 * Updates entity values from the request if both exist. If the entity or request is null, the entity is returned
-	 * unchanged. This method performs a partial update (PATCH semantics): - Existing values not in the request are
-	 * preserved - Values in the
-	 * request update existing values (matched by a key) - New values in the request are added
-	 *
-	 * @param  entity  the entity to update
-	 * @param  request the request to update from
-	 * @return         the updated entity
-	 */
-	public static MessagingSettingEntity updateEntity(final MessagingSettingEntity entity, final MessagingSettingsRequest request) {
-		if (entity != null && request != null) {
-			entity.setValues(mergeValues(entity.getValues(), toEmbeddableValues(request.getValues())));
-		}
-		return entity;
-	}
-
-	/**
-	 * Merges existing values with new values from the request. For values with matching keys, the new value replaces the
-	 * existing one. Values not in the new list are preserved.
+	 * Merges existing values with new values. For values with matching keys, the new values replace the existing ones.
+	 * Values not in the new list are preserved.
 	 *
 	 * @param  existingValues the current values
-	 * @param  newValues      the values from the update request
+	 * @param  newValues      the new values
 	 * @return                the merged values list
 	 */
-	private static List<MessagingSettingValueEmbeddable> mergeValues(
+	public static List<MessagingSettingValueEmbeddable> mergeValues(
 		final List<MessagingSettingValueEmbeddable> existingValues,
 		final List<MessagingSettingValueEmbeddable> newValues) {
 
 		final var existing = ofNullable(existingValues).orElse(emptyList());
 		final var updates = ofNullable(newValues).orElse(emptyList());
+		final var updatedKeys = updates.stream()
+			.map(MessagingSettingValueEmbeddable::getKey)
+			.collect(toSet());
 
 		// Start with existing values, replacing any that are in the update
 		final var merged = existing.stream()
-			.filter(existingValue -> updates.stream()
-				.noneMatch(newValue -> newValue.getKey().equals(existingValue.getKey())))
+			.filter(existingValue -> !updatedKeys.contains(existingValue.getKey()))
 			.collect(toList());
 
 		// Add all values from the update (both new and updated)
@@ -107,13 +98,47 @@ public final class EntityMapper {
 		return merged;
 	}
 
+	/**
+	 * Normalizes a stored key or value for case-insensitive comparison by removing surrounding whitespace and converting
+	 * it to lower case
+	 *
+	 * @param  value the value to normalize
+	 * @return       the normalized value, or null if value is null
+	 */
+	public static String normalize(final String value) {
+		return ofNullable(value)
+			.map(String::trim)
+			.map(string -> string.toLowerCase(ROOT))
+			.orElse(null);
+	}
+
+	/**
+	 * Hashes a normalized value the same way as the database does for column value_norm_hash
+	 *
+	 * @param  normalizedValue the normalized value to hash
+	 * @return                 the hex encoded SHA-256 hash of the value, or null if value is null
+	 */
+	public static String hash(final String normalizedValue) {
+		return ofNullable(normalizedValue)
+			.map(value -> HexFormat.of().formatHex(sha256().digest(value.getBytes(UTF_8))))
+			.orElse(null);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	/**
 	 * Maps request values to embeddable values
 	 *
 	 * @param  values the values to map
 	 * @return        the mapped values
 	 */
-	private static List<MessagingSettingValueEmbeddable> toEmbeddableValues(final List<MessagingSettingValueRequest> values) {
+	public static List<MessagingSettingValueEmbeddable> toEmbeddableValues(final List<MessagingSettingValueRequest> values) {
 		return ofNullable(values).orElse(emptyList()).stream()
 			.map(value -> MessagingSettingValueEmbeddable.builder()
 				.withKey(value.getKey())
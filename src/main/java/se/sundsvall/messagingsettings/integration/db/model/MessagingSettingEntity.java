@@ -21,16 +21,20 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.TimeZoneStorage;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import static jakarta.persistence.FetchType.EAGER;
 import static jakarta.persistence.GenerationType.UUID;
+import static org.hibernate.annotations.FetchMode.SUBSELECT;
+import static org.hibernate.annotations.OnDeleteAction.CASCADE;
 import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE_UTC;
 
 @Entity
 @Table(name = "messaging_setting", indexes = {
-	@Index(name = "idx_messaging_setting_municipality_id", columnList = "municipality_id")
+	@Index(name = "idx_messaging_setting_municipality_id_created_id", columnList = "municipality_id, created, id")
 })
 @Builder(setterPrefix = "with")
 @NoArgsConstructor
@@ -48,7 +52,7 @@ public class MessagingSettingEntity {
 	private String municipalityId;
 
 	@CreationTimestamp
-	@Column(name = "created")
+	@Column(name = "created", nullable = false)
 	@TimeZoneStorage(NORMALIZE_UTC)
 	private OffsetDateTime created;
 
@@ -57,13 +61,23 @@ public class MessagingSettingEntity {
 	@TimeZoneStorage(NORMALIZE_UTC)
 	private OffsetDateTime updated;
 
+	/**
+	 * Values are fetched with a single subselect for all settings in a result, instead of one select per setting. Values
+	 * are removed by the database when their setting is deleted.
+	 */
 	@Builder.Default
 	@ElementCollection(fetch = EAGER)
+	@Fetch(SUBSELECT)
+	@OnDelete(action = CASCADE)
 	@CollectionTable(name = "messaging_setting_value", indexes = {
-		@Index(name = "idx_messaging_setting_value_messaging_setting_id_key", columnList = "messaging_setting_id, `key`")
+		@Index(name = "idx_messaging_setting_value_messaging_setting_id_key", columnList = "messaging_setting_id, `key`"),
+		@Index(name = "idx_messaging_setting_value_key_norm_value_norm", columnList = "key_norm, value_norm, messaging_setting_id"),
+		@Index(name = "idx_messaging_setting_value_key_norm_value_norm_hash", columnList = "key_norm, value_norm_hash, messaging_setting_id"),
+		@Index(name = "idx_messaging_setting_value_value_numeric", columnList = "value_numeric, key_norm, messaging_setting_id"),
+		@Index(name = "idx_messaging_setting_value_key_norm_value_boolean", columnList = "key_norm, value_boolean, messaging_setting_id")
 	}, uniqueConstraints = {
-		@UniqueConstraint(name = "uk_messaging_setting_id_key_value", columnNames = {
-			"messaging_setting_id", "`key`", "`value`"
+		@UniqueConstraint(name = "uk_messaging_setting_id_key_value_hash", columnNames = {
+			"messaging_setting_id", "`key`", "value_hash"
 		})
 	}, joinColumns = @JoinColumn(name = "messaging_setting_id", referencedColumnName = "id", foreignKey = @ForeignKey(name = "fk_messaging_setting_value_messaging_setting")))
 	private List<MessagingSettingValueEmbeddable> values = new ArrayList<>();
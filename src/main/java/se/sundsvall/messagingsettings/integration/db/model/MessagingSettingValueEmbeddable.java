@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import java.math.BigDecimal;
 import java.util.Objects;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -20,6 +21,11 @@ import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
 @Setter
 public class MessagingSettingValueEmbeddable {
 
+	/**
+	 * Max length of the normalized prefix of the value that is stored (and indexed) in column value_norm
+	 */
+	public static final int VALUE_NORM_LENGTH = 255;
+
 	@Column(name = "`key`", nullable = false)
 	private String key;
 
@@ -30,9 +36,51 @@ public class MessagingSettingValueEmbeddable {
 	@Column(name = "`type`", nullable = false)
 	private ValueType type;
 
+	/**
+	 * Lower-cased key without surrounding whitespace, generated by the database and used for indexed case-insensitive
+	 * matching (filter attribute values.keyNorm)
+	 */
+	@Column(name = "key_norm", columnDefinition = "varchar(255) as (lower(trim(`key`))) stored", insertable = false, updatable = false)
+	private String keyNorm;
+
+	/**
+	 * Lower-cased prefix of the value without surrounding whitespace, generated by the database and used for indexed
+	 * case-insensitive matching (filter attribute values.valueNorm)
+	 */
+	@Column(name = "value_norm", columnDefinition = "varchar(" + VALUE_NORM_LENGTH + ") as (left(lower(trim(`value`)), " + VALUE_NORM_LENGTH + ")) stored", insertable = false, updatable = false)
+	private String valueNorm;
+
+	/**
+	 * Hex encoded SHA-256 hash of the value, generated by the database and used as a fixed width substitute for the value
+	 * in the unique constraint
+	 */
+	@Column(name = "value_hash", columnDefinition = "char(64) as (sha2(`value`, 256)) stored", insertable = false, updatable = false)
+	private String valueHash;
+
+	/**
+	 * Hex encoded SHA-256 hash of the normalized value, generated by the database and used for indexed case-insensitive
+	 * equality matching of values of any length
+	 */
+	@Column(name = "value_norm_hash", columnDefinition = "char(64) as (sha2(lower(trim(`value`)), 256)) stored", insertable = false, updatable = false)
+	private String valueNormHash;
+
+	/**
+	 * The value as a number when the type is NUMERIC and the value is a decimal number that fits the column, generated by
+	 * the database and used for indexed numeric comparison (filter attribute values.numeric)
+	 */
+	@Column(name = "value_numeric", columnDefinition = "decimal(38,10) as (case when `type` = 'NUMERIC' and trim(`value`) regexp '^[+-]?[0-9]{1,28}([.][0-9]{1,10})?$' then cast(trim(`value`) as decimal(38,10)) end) stored", insertable = false, updatable = false)
+	private BigDecimal numeric;
+
+	/**
+	 * The value as a boolean when the type is BOOLEAN and the value is true or false, generated by the database and used
+	 * for indexed boolean comparison (filter attribute values.bool)
+	 */
+	@Column(name = "value_boolean", columnDefinition = "boolean as (case when `type` = 'BOOLEAN' and lower(trim(`value`)) in ('true', 'false') then lower(trim(`value`)) = 'true' end) stored", insertable = false, updatable = false)
+	private Boolean bool;
+
 	@Override
 	public int hashCode() {
-		return Objects.hash(key, type, value);
+		return Objects.hash(bool, key, keyNorm, numeric, type, value, valueHash, valueNorm, valueNormHash);
 	}
 
 	@Override
@@ -43,11 +91,13 @@ public class MessagingSettingValueEmbeddable {
 		if (!(obj instanceof final MessagingSettingValueEmbeddable other)) {
 			return false;
 		}
-		return Objects.equals(key, other.key) && type == other.type && Objects.equals(value, other.value);
+		return Objects.equals(key, other.key) && Objects.equals(keyNorm, other.keyNorm) && type == other.type && Objects.equals(value, other.value)
+			&& Objects.equals(valueHash, other.valueHash) && Objects.equals(valueNorm, other.valueNorm) && Objects.equals(valueNormHash, other.valueNormHash) && Objects.equals(numeric, other.numeric)
+			&& Objects.equals(bool, other.bool);
 	}
 
 	@Override
 	public String toString() {
-		return "MessagingSettingValueEmbeddable [key=" + key + ", value=" + value + ", type=" + type + "]";
+		return "MessagingSettingValueEmbeddable [key=" + key + ", value=" + value + ", type=" + type + ", keyNorm=" + keyNorm + ", valueNorm=" + valueNorm + ", valueHash=" + valueHash + ", valueNormHash=" + valueNormHash + ", numeric=" + numeric + ", bool=" + bool + "]";
 	}
 }
@@ -0,0 +1,62 @@
+package se.sundsvall.messagingsettings.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.TimeZoneStorage;
+
+import static org.hibernate.annotations.TimeZoneStorageType.NORMALIZE_UTC;
+
+/**
+ * Version of the messaging settings within a municipality. The version is incremented on every change of a setting
+ * within the municipality and is used to detect changes made by other instances of the service.
+ */
+@Entity
+@Table(name = "messaging_setting_version")
+@Builder(setterPrefix = "with")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class MessagingSettingVersionEntity {
+
+	@Id
+	@Column(name = "municipality_id", length = 5)
+	private String municipalityId;
+
+	@Column(name = "version", nullable = false)
+	private Long version;
+
+	@Column(name = "updated")
+	@TimeZoneStorage(NORMALIZE_UTC)
+	private OffsetDateTime updated;
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(municipalityId, updated, version);
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof final MessagingSettingVersionEntity other)) {
+			return false;
+		}
+		return Objects.equals(municipalityId, other.municipalityId) && Objects.equals(updated, other.updated) && Objects.equals(version, other.version);
+	}
+
+	@Override
+	public String toString() {
+		return "MessagingSettingVersionEntity [municipalityId=" + municipalityId + ", version=" + version + ", updated=" + updated + "]";
+	}
+}
@@ -1,15 +1,18 @@
 package se.sundsvall.messagingsettings.integration.db.specification;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import org.springframework.data.jpa.domain.Specification;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
 
-import static java.util.Objects.nonNull;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.CREATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
 import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.MUNICIPALITY_ID;
 
 public final class MessagingSettingSpecification {
 
 	// The constants below specify the keys in the setting_value-table that contains value-specific information
-	private static final String DEPARTMENT_ID = "department_id";
+	public static final String DEPARTMENT_ID = "department_id";
 
 	private static final SpecificationBuilder<MessagingSettingEntity> BUILDER = new SpecificationBuilder<>();
 
@@ -29,16 +32,37 @@ public final class MessagingSettingSpecification {
 	}
 
 	/**
-	 * Creates a filter for matching department name if provided, else match all
+	 * Creates filter for matching any of the provided ids if provided, else match all
 	 *
-	 * @param  departmentId the value to compare department name against
-	 * @return              a specification that compares department name against given value (or match all if value is not
-	 *                      provided)
+	 * @param  ids the values to compare the id to
+	 * @return     a specification that matches settings with an id present in the given values (or match all if values
+	 *             are not provided)
 	 */
-	public static Specification<MessagingSettingEntity> matchesDepartmentId(final String departmentId) {
-		return nonNull(departmentId)
-			? BUILDER.matchesSettingValueKeyIgnoreCase(DEPARTMENT_ID).and(BUILDER.matchesSettingValueValueIgnoreCase(departmentId))
-			: BUILDER.matchesAll();
+	public static Specification<MessagingSettingEntity> matchesIds(final Collection<String> ids) {
+		return BUILDER.buildInFilter(ID, ids);
 	}
 
+	/**
+	 * Creates a filter for matching any of the provided department ids if provided, else match all
+	 *
+	 * @param  departmentIds the values to compare department id against
+	 * @return               a specification that matches settings with a department id equal to any of the given values
+	 *                       (or match all if values are not provided)
+	 */
+	public static Specification<MessagingSettingEntity> matchesDepartmentIds(final Collection<String> departmentIds) {
+		return BUILDER.matchesSettingValueInIgnoreCase(DEPARTMENT_ID, departmentIds);
+	}
+
+	/**
+	 * Creates filter for matching settings positioned after the provided position when ordered by creation time and id,
+	 * if provided, else match all
+	 *
+	 * @param  created the creation time of the position to match settings after
+	 * @param  id      the id of the position to match settings after
+	 * @return         a specification that matches settings after the given position (or match all if position is not
+	 *                 provided)
+	 */
+	public static Specification<MessagingSettingEntity> isAfter(final OffsetDateTime created, final String id) {
+		return BUILDER.buildKeysetFilter(CREATED, created, ID, id);
+	}
 }
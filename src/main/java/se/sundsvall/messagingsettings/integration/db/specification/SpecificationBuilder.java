@@ -1,12 +1,14 @@
 package se.sundsvall.messagingsettings.integration.db.specification;
 
+import java.util.Collection;
 import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper;
 
-import static jakarta.persistence.criteria.JoinType.LEFT;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.VALUES;
-import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.KEY;
-import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.VALUE;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.KEY_NORM;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable_.VALUE_NORM_HASH;
 
 public class SpecificationBuilder<T> {
 
@@ -22,27 +24,69 @@ public class SpecificationBuilder<T> {
 	}
 
 	/**
-	 * Method builds a like filter to match key/value-pair with key matching sent in value using case-insensitive matching.
-	 * If the value is null, the method returns an always-true predicate (meaning no filtering will be applied for sent in
-	 * attribute)
+	 * Method builds an in filter if the values are not null. If the values are null, the method returns an always-true
+	 * predicate (meaning no filtering will be applied for sent in attribute)
 	 *
-	 * @param  value value (or null) to compare against key-attribute in the list of key/value-pairs for the setting
-	 * @return       Specification<T> matching sent in comparison
+	 * @param  values values (or null) to compare against
+	 * @return        Specification<T> matching sent in comparison
 	 */
-	Specification<T> matchesSettingValueKeyIgnoreCase(final String value) {
-		return (entity, _, cb) -> nonNull(value) ? cb.like(cb.lower(entity.join(VALUES, LEFT).get(KEY)), value) : cb.and();
+	Specification<T> buildInFilter(final String attribute, final Collection<?> values) {
+		return (entity, _, cb) -> nonNull(values) ? entity.get(attribute).in(values) : cb.and();
 	}
 
 	/**
-	 * Method builds a like filter to match key/value-pair with value matching sent in value using case-insensitive
-	 * matching. If the value is null, the method returns an always-true predicate (meaning no filtering will be applied for
-	 * sent in attribute)
+	 * Method builds a keyset filter matching entities positioned after sent in position when ordered by attribute and
+	 * tie-breaker attribute. Entities with a null value for attribute are positioned before all other entities. If the
+	 * tie-breaker value is null, the method returns an always-true predicate (meaning no filtering will be applied for
+	 * sent in attributes)
 	 *
-	 * @param  value value (or null) to compare against key-attribute in the list of key/value-pairs for the setting
-	 * @return       Specification<T> matching sent in comparison
+	 * @param  attribute           attribute that entities are primarily ordered by
+	 * @param  value               value (or null) of attribute for the position to match entities after
+	 * @param  tieBreakerAttribute unique attribute that entities with equal values for attribute are ordered by
+	 * @param  tieBreakerValue     value (or null) of tie-breaker attribute for the position to match entities after
+	 * @return                     Specification<T> matching entities after sent in position
+	 */
+	<C extends Comparable<? super C>> Specification<T> buildKeysetFilter(final String attribute, final C value, final String tieBreakerAttribute, final String tieBreakerValue) {
+		return (entity, _, cb) -> {
+			if (isNull(tieBreakerValue)) {
+				return cb.and();
+			}
+			if (isNull(value)) {
+				return cb.or(
+					cb.isNotNull(entity.get(attribute)),
+					cb.and(cb.isNull(entity.get(attribute)), cb.greaterThan(entity.get(tieBreakerAttribute), tieBreakerValue)));
+			}
+			return cb.or(
+				cb.greaterThan(entity.get(attribute), value),
+				cb.and(cb.equal(entity.get(attribute), value), cb.greaterThan(entity.get(tieBreakerAttribute), tieBreakerValue)));
+		};
+	}
+
+	/**
+	 * Method builds a filter to match settings having a key/value-pair where the key equals sent in key and the value
+	 * equals any of the sent in values, using case-insensitive matching. Key and value are matched against the same
+	 * key/value-pair through a correlated exists subquery, so each setting is matched at most once. Matching is made on
+	 * the indexed normalized key and hash of the normalized value. If the key or values are null, the method returns an
+	 * always-true predicate (meaning no filtering will be applied for sent in attribute)
+	 *
+	 * @param  key    key (or null) to compare against key-attribute in the list of key/value-pairs for the setting
+	 * @param  values values (or null) to compare against value-attribute in the same key/value-pair
+	 * @return        Specification<T> matching sent in comparison
 	 */
-	Specification<T> matchesSettingValueValueIgnoreCase(final String value) {
-		return (entity, _, cb) -> nonNull(value) ? cb.like(cb.lower(entity.join(VALUES, LEFT).get(VALUE)), value) : cb.and();
+	Specification<T> matchesSettingValueInIgnoreCase(final String key, final Collection<String> values) {
+		return (entity, query, cb) -> {
+			if (isNull(key) || isNull(values)) {
+				return cb.and();
+			}
+
+			final var hashedValues = values.stream().map(EntityMapper::normalize).map(EntityMapper::hash).toList();
+			final var subquery = query.subquery(Integer.class);
+			final var settingValue = subquery.correlate(entity).join(VALUES);
+
+			return cb.exists(subquery.select(cb.literal(1)).where(
+				cb.equal(settingValue.get(KEY_NORM), EntityMapper.normalize(key)),
+				settingValue.get(VALUE_NORM_HASH).in(hashedValues)));
+		};
 	}
 
 	/**
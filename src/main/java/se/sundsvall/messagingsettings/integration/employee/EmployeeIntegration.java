@@ -1,36 +1,132 @@
 package se.sundsvall.messagingsettings.integration.employee;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import generated.se.sundsvall.employee.PortalPersonData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.messagingsettings.integration.employee.configuration.EmployeeProperties;
 import se.sundsvall.messagingsettings.integration.employee.mapper.EmployeeMapper;
 import se.sundsvall.messagingsettings.service.model.DepartmentInfo;
 
+import static java.lang.Boolean.TRUE;
 import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
 
 /**
- * Wrapper class for {@link EmployeeClient}.
+ * Wrapper class for {@link EmployeeClient}. Department information is cached per user, as the organizational
+ * affiliation of a user rarely changes. Cached entries are reloaded in the background when they are read after the
+ * configured refresh interval, and expire entirely when they have not been reloaded within the time to live. Concurrent
+ * lookups of a user that is not cached share one outstanding call to the employee service. Users that are unknown to
+ * the employee service, or lack an organizational affiliation, are remembered for a short time in a separate cache so
+ * that repeated lookups of them neither reach the employee service nor displace known users from the cache.
+ * <p>
+ * If the employee service fails, the last known department information for the user is served as long as it is not
+ * older than the configured maximum staleness. Such responses are flagged by the request attribute
+ * {@link #STALE_DATA_ATTRIBUTE}.
  */
 @Component
 public class EmployeeIntegration {
 
+	static final String CACHE_NAME = "employee.departmentinfos";
+	static final String NEGATIVE_CACHE_NAME = "employee.departmentinfos.negative";
+	static final String METRIC_COALESCED = "employee.departmentinfos.coalesced";
+	static final String METRIC_STALE = "employee.departmentinfos.stale";
+
+	public static final String STALE_DATA_ATTRIBUTE = EmployeeIntegration.class.getName() + ".staleData";
+
 	private final EmployeeClient employeeClient;
 	private final EmployeeProperties employeeProperties;
+	private final LoadingCache<CacheKey, List<DepartmentInfo>> departmentInfoCache;
+	private final Cache<CacheKey, Boolean> negativeCache;
+	private final Cache<CacheKey, List<DepartmentInfo>> lastKnownDepartmentInfos;
+	private final SingleFlight<CacheKey, List<DepartmentInfo>> singleFlight;
+	private final Counter staleCounter;
 
-	public EmployeeIntegration(final EmployeeClient employeeClient, final EmployeeProperties employeeProperties) {
+	public EmployeeIntegration(final EmployeeClient employeeClient, final EmployeeProperties employeeProperties, final MeterRegistry meterRegistry) {
 		this.employeeClient = employeeClient;
 		this.employeeProperties = employeeProperties;
+		this.departmentInfoCache = Caffeine.newBuilder()
+			.expireAfterWrite(employeeProperties.cache().timeToLive())
+			.refreshAfterWrite(employeeProperties.cache().refreshAfter())
+			.maximumSize(employeeProperties.cache().maximumSize())
+			.recordStats()
+			.build(this::fetchDepartmentInfos);
+		this.negativeCache = Caffeine.newBuilder()
+			.expireAfterWrite(employeeProperties.cache().negativeTimeToLive())
+			.maximumSize(employeeProperties.cache().negativeMaximumSize())
+			.recordStats()
+			.build();
+		this.lastKnownDepartmentInfos = Caffeine.newBuilder()
+			.expireAfterWrite(employeeProperties.cache().maximumStaleness())
+			.maximumSize(employeeProperties.cache().maximumSize())
+			.build();
+		this.singleFlight = new SingleFlight<>(Counter.builder(METRIC_COALESCED).register(meterRegistry));
+		this.staleCounter = Counter.builder(METRIC_STALE).register(meterRegistry);
+
+		CaffeineCacheMetrics.monitor(meterRegistry, departmentInfoCache, CACHE_NAME);
+		CaffeineCacheMetrics.monitor(meterRegistry, negativeCache, NEGATIVE_CACHE_NAME);
 	}
 
 	public List<DepartmentInfo> getDepartmentInfos(final String municipalityId, final String loginName) {
-		final var domain = resolveDomain(municipalityId);
-		return employeeClient.getEmployeeByDomainAndLoginName(municipalityId, domain, loginName)
+		final var key = new CacheKey(municipalityId, resolveDomain(municipalityId), loginName);
+		if (negativeCache.getIfPresent(key) != null) {
+			return List.of();
+		}
+
+		try {
+			return lookupDepartmentInfos(key);
+		} catch (final RuntimeException e) {
+			final var lastKnown = lastKnownDepartmentInfos.getIfPresent(key);
+			if (lastKnown == null) {
+				throw e;
+			}
+			markAsStale();
+			return lastKnown;
+		}
+	}
+
+	private List<DepartmentInfo> lookupDepartmentInfos(final CacheKey key) {
+		// Cached entries are read directly, only misses need to be coalesced
+		final var departmentInfos = departmentInfoCache.policy().getIfPresentQuietly(key) != null
+			? departmentInfoCache.get(key)
+			: singleFlight.execute(key, () -> departmentInfoCache.get(key));
+
+		// A missing value means that the user has no organizational affiliation, see fetchDepartmentInfos
+		return Optional.ofNullable(departmentInfos).orElseGet(List::of);
+	}
+
+	/**
+	 * Loads department information for the cache. Users without department information are put in the negative cache and
+	 * null is returned, which leaves the regular cache untouched.
+	 */
+	private List<DepartmentInfo> fetchDepartmentInfos(final CacheKey key) {
+		final var departmentInfos = employeeClient.getEmployeeByDomainAndLoginName(key.municipalityId(), key.domain(), key.loginName())
 			.map(PortalPersonData::getFullOrgTree)
 			.map(EmployeeMapper::toDepartmentInfos)
 			.orElseGet(List::of);
+
+		if (departmentInfos.isEmpty()) {
+			negativeCache.put(key, TRUE);
+			lastKnownDepartmentInfos.invalidate(key);
+			return null;
+		}
+
+		lastKnownDepartmentInfos.put(key, departmentInfos);
+		return departmentInfos;
+	}
+
+	private void markAsStale() {
+		staleCounter.increment();
+		Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+			.ifPresent(attributes -> attributes.setAttribute(STALE_DATA_ATTRIBUTE, true, SCOPE_REQUEST));
 	}
 
 	private String resolveDomain(final String municipalityId) {
@@ -38,4 +134,7 @@ public class EmployeeIntegration {
 			.map(domains -> domains.get(municipalityId))
 			.orElseThrow(() -> Problem.valueOf(INTERNAL_SERVER_ERROR, "No employee domain configured for municipality '%s'.".formatted(municipalityId)));
 	}
+
+	private record CacheKey(String municipalityId, String domain, String loginName) {
+	}
 }
@@ -0,0 +1,56 @@
+package se.sundsvall.messagingsettings.integration.employee;
+
+import io.micrometer.core.instrument.Counter;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent calls for the same key. The first caller for a key executes the call while callers arriving
+ * before it has finished wait for, and share, its outcome - including any exception thrown.
+ *
+ * @param <K> the type of key identifying a call
+ * @param <V> the type of the result of a call
+ */
+final class SingleFlight<K, V> {
+
+	private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final Counter coalescedCounter;
+
+	SingleFlight(final Counter coalescedCounter) {
+		this.coalescedCounter = coalescedCounter;
+	}
+
+	V execute(final K key, final Supplier<V> call) {
+		final var pendingResult = new CompletableFuture<V>();
+		final var ongoingResult = inFlight.putIfAbsent(key, pendingResult);
+		if (ongoingResult != null) {
+			coalescedCounter.increment();
+			return await(ongoingResult);
+		}
+
+		try {
+			final var result = call.get();
+			pendingResult.complete(result);
+			return result;
+		} catch (final RuntimeException | Error e) {
+			pendingResult.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, pendingResult);
+		}
+	}
+
+	private static <V> V await(final CompletableFuture<V> result) {
+		try {
+			return result.join();
+		} catch (final CompletionException e) {
+			if (e.getCause() instanceof final RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw e;
+		}
+	}
+}
@@ -1,11 +1,35 @@
 package se.sundsvall.messagingsettings.integration.employee.configuration;
 
+import java.time.Duration;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 
 @ConfigurationProperties(prefix = "integration.employee")
 public record EmployeeProperties(
 	int connectTimeout,
 	int readTimeout,
-	Map<String, String> domains) {
+	Map<String, String> domains,
+	@DefaultValue Cache cache) {
+
+	/**
+	 * Settings for the cache of department information fetched from the employee service.
+	 *
+	 * @param timeToLive          how long a cached entry is kept after it has been written
+	 * @param refreshAfter        how long after write an entry is reloaded in the background on the next read, should be
+	 *                            shorter than timeToLive
+	 * @param maximumSize         the maximum number of cached users
+	 * @param maximumStaleness    how long the last known department information for a user may be served when the
+	 *                            employee service is unavailable
+	 * @param negativeTimeToLive  how long a user without department information is remembered as such
+	 * @param negativeMaximumSize the maximum number of users without department information to remember
+	 */
+	public record Cache(
+		@DefaultValue("PT12H") Duration timeToLive,
+		@DefaultValue("PT1H") Duration refreshAfter,
+		@DefaultValue("10000") long maximumSize,
+		@DefaultValue("P7D") Duration maximumStaleness,
+		@DefaultValue("PT1M") Duration negativeTimeToLive,
+		@DefaultValue("1000") long negativeMaximumSize) {
+	}
 }
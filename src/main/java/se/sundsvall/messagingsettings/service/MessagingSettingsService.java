@@ -1,91 +1,253 @@
 package se.sundsvall.messagingsettings.service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
 import se.sundsvall.dept44.problem.Problem;
 import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest;
 import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
 import se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
 import se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration;
+import se.sundsvall.messagingsettings.service.cache.MessagingSettingsSnapshotCache;
+import se.sundsvall.messagingsettings.service.cache.ResolvedSettingsCache;
+import se.sundsvall.messagingsettings.service.model.DepartmentInfo;
+import se.sundsvall.messagingsettings.service.model.KeysetCursor;
+import se.sundsvall.messagingsettings.service.model.MessagingSettingsPage;
+import se.sundsvall.messagingsettings.service.patch.ValuePatcher;
+import tools.jackson.databind.JsonNode;
 
+import static java.util.function.Predicate.not;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.mergeValues;
+import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.normalize;
+import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.toEmbeddableValues;
 import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.toEntity;
-import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.updateEntity;
-import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentId;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.CREATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.DEPARTMENT_ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.isAfter;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
 import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+import static se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration.STALE_DATA_ATTRIBUTE;
 
 @Service
 public class MessagingSettingsService {
 
 	static final String ERROR_MESSAGE_MESSAGING_SETTINGS_NOT_FOUND = "Messaging settings not found for municipality with ID '%s' and user '%s'.";
 	static final String ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID = "Messaging setting not found for municipality with ID '%s' and ID '%s'.";
+	static final int STREAM_BATCH_SIZE = 500;
 
 	private final MessagingSettingRepository messagingSettingRepository;
+	private final MessagingSettingVersionRepository messagingSettingVersionRepository;
 	private final EmployeeIntegration employeeIntegration;
+	private final MessagingSettingsSnapshotCache snapshotCache;
+	private final ResolvedSettingsCache resolvedSettingsCache;
 
 	public MessagingSettingsService(final MessagingSettingRepository messagingSettingRepository,
-		final EmployeeIntegration employeeIntegration) {
+		final MessagingSettingVersionRepository messagingSettingVersionRepository,
+		final EmployeeIntegration employeeIntegration,
+		final MessagingSettingsSnapshotCache snapshotCache,
+		final ResolvedSettingsCache resolvedSettingsCache) {
 		this.messagingSettingRepository = messagingSettingRepository;
+		this.messagingSettingVersionRepository = messagingSettingVersionRepository;
 		this.employeeIntegration = employeeIntegration;
+		this.snapshotCache = snapshotCache;
+		this.resolvedSettingsCache = resolvedSettingsCache;
 	}
 
 	/**
-	 * Method returns all messaging settings that match the provided filter
+	 * Method returns all messaging settings that match the provided filter. Unfiltered reads are served from the in-memory
+	 * snapshot when snapshot mode is enabled.
 	 *
 	 * @param  municipalityId id of municipality to match
 	 * @param  filter         optional filter to match
 	 * @return                a list of MessagingSettings that matches provided filters within the provided municipality
 	 */
 	public List<MessagingSettings> fetchMessagingSettings(final String municipalityId, final Specification<MessagingSettingEntity> filter) {
+		if (filter == null && snapshotCache.isEnabled()) {
+			return snapshotCache.get(municipalityId);
+		}
+
 		final var spec = Optional.ofNullable(filter)
 			.map(matchesMunicipalityId(municipalityId)::and)
 			.orElse(matchesMunicipalityId(municipalityId));
 
-		return messagingSettingRepository.findAll(spec).stream()
-			.map(EntityMapper::toMessagingSettings)
-			.toList();
+		return messagingSettingRepository.findAllAsMessagingSettings(spec);
+	}
+
+	/**
+	 * Method returns a stream of all messaging settings that match the provided filter, ordered by creation time and id
+	 * and read in batches while the stream is consumed. The returned stream must be closed.
+	 *
+	 * @param  municipalityId id of municipality to match
+	 * @param  filter         optional filter to match
+	 * @return                a stream of MessagingSettings that matches provided filters within the provided municipality
+	 */
+	public Stream<MessagingSettings> streamMessagingSettings(final String municipalityId, final Specification<MessagingSettingEntity> filter) {
+		final var spec = Optional.ofNullable(filter)
+			.map(matchesMunicipalityId(municipalityId)::and)
+			.orElse(matchesMunicipalityId(municipalityId));
+
+		return messagingSettingRepository.streamAll(spec, STREAM_BATCH_SIZE)
+			.map(EntityMapper::toMessagingSettings);
+	}
+
+	/**
+	 * Method returns a page of the messaging settings that match the provided filter, ordered by creation time and id and
+	 * positioned by the keyset of the last setting on the previous page.
+	 *
+	 * @param  municipalityId   id of municipality to match
+	 * @param  filter           optional filter to match
+	 * @param  limit            the maximum number of settings on the page
+	 * @param  cursor           optional cursor of the page to return, as returned for the previous page, or null for the
+	 *                          first page
+	 * @return                  the page of MessagingSettings together with the cursor of the next page, or null if this is
+	 *                          the last page
+	 * @throws ThrowableProblem if the cursor is not valid
+	 */
+	public MessagingSettingsPage fetchMessagingSettingsPage(final String municipalityId, final Specification<MessagingSettingEntity> filter, final int limit, final String cursor) {
+		final var position = Optional.ofNullable(cursor).map(KeysetCursor::decode);
+		final var baseSpec = matchesMunicipalityId(municipalityId)
+			.and(isAfter(position.map(KeysetCursor::created).orElse(null), position.map(KeysetCursor::id).orElse(null)));
+		final var spec = Optional.ofNullable(filter)
+			.map(baseSpec::and)
+			.orElse(baseSpec);
+
+		// One id more than the page size is read to find out whether there is a next page
+		final var ids = messagingSettingRepository.findIdsOrderedByCreatedAndId(spec, limit + 1);
+		if (ids.isEmpty()) {
+			return new MessagingSettingsPage(List.of(), null);
+		}
+
+		final var settings = messagingSettingRepository.findAllAsMessagingSettings(matchesIds(ids.subList(0, Math.min(limit, ids.size()))), Sort.by(CREATED, ID));
+		final var nextCursor = ids.size() > limit && !settings.isEmpty()
+			? KeysetCursor.of(settings.getLast()).encode()
+			: null;
+
+		return new MessagingSettingsPage(settings, nextCursor);
 	}
 
 	/**
 	 * Method returns messaging settings that matches the organization affiliated to the user represented by the provided
-	 * identifier. Settings are resolved hierarchically - first checking the user's department (level 2), then falling back
-	 * to municipality
-	 * level (level 1).
+	 * identifier. Settings are resolved hierarchically - the user's department (level 2) takes precedence over the
+	 * municipality level (level 1). All organizational levels are matched at once and the most specific level with
+	 * matching settings wins. When snapshot mode is enabled, departments are resolved through the in-memory department
+	 * index. Resolved settings are cached per user and filter when the resolved settings cache is enabled.
 	 *
 	 * @param  municipalityId   id of municipality to match
 	 * @param  identifier       identifier representing the user that has been provided in header with name x-sent-by
 	 * @param  filter           additional specification to apply when searching for settings
-	 * @return                  a list of MessagingSettings for the first matching organizational level
+	 * @return                  a list of MessagingSettings for the most specific matching organizational level
 	 * @throws ThrowableProblem if no settings were found at any organizational level
 	 */
 	public List<MessagingSettings> fetchMessagingSettingsForUser(final String municipalityId, final Identifier identifier, final Specification<MessagingSettingEntity> filter) {
+		final var loginName = identifier.getValue();
+
+		return resolvedSettingsCache.get(municipalityId, loginName, filter)
+			.orElseGet(() -> resolveMessagingSettingsForUser(municipalityId, loginName, filter, resolvedSettingsCache.generation(municipalityId)));
+	}
 
-		final var departmentInfos = employeeIntegration.getDepartmentInfos(municipalityId, identifier.getValue());
-		for (final var department : departmentInfos) {
-			final var settings = findSettingsForDepartment(municipalityId, department.id(), filter);
+	private List<MessagingSettings> resolveMessagingSettingsForUser(final String municipalityId, final String loginName, final Specification<MessagingSettingEntity> filter, final long generation) {
+
+		// Department ids are ordered from the most specific organizational level to the least specific
+		final var departmentIds = employeeIntegration.getDepartmentInfos(municipalityId, loginName).stream()
+			.map(DepartmentInfo::id)
+			.toList();
+
+		if (!departmentIds.isEmpty()) {
+			final var settings = snapshotCache.isEnabled()
+				? findIndexedSettingsForDepartments(municipalityId, departmentIds, filter)
+				: findSettingsForDepartments(municipalityId, departmentIds, filter);
 
 			if (!settings.isEmpty()) {
+				// Settings resolved from stale department information are not cached, as they would then be served unflagged
+				if (!isResolvedFromStaleData()) {
+					resolvedSettingsCache.put(municipalityId, loginName, filter, departmentIds, settings, generation);
+				}
 				return settings;
 			}
 		}
-		throw Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTINGS_NOT_FOUND.formatted(municipalityId, identifier.getValue()));
+		throw Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTINGS_NOT_FOUND.formatted(municipalityId, loginName));
 	}
 
-	private List<MessagingSettings> findSettingsForDepartment(final String municipalityId, final String departmentId, final Specification<MessagingSettingEntity> filter) {
-		final var baseSpec = matchesMunicipalityId(municipalityId).and(matchesDepartmentId(departmentId));
+	private static boolean isResolvedFromStaleData() {
+		return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
+			.map(attributes -> attributes.getAttribute(STALE_DATA_ATTRIBUTE, SCOPE_REQUEST))
+			.isPresent();
+	}
+
+	private List<MessagingSettings> findSettingsForDepartments(final String municipalityId, final List<String> departmentIds, final Specification<MessagingSettingEntity> filter) {
+		final var baseSpec = matchesMunicipalityId(municipalityId).and(matchesDepartmentIds(departmentIds));
 		final var spec = Optional.ofNullable(filter)
 			.map(baseSpec::and)
 			.orElse(baseSpec);
 
-		return messagingSettingRepository.findAll(spec).stream()
-			.map(EntityMapper::toMessagingSettings)
+		final var candidates = messagingSettingRepository.findAllAsMessagingSettings(spec);
+
+		return selectMostSpecificLevel(departmentIds, candidates);
+	}
+
+	private List<MessagingSettings> findIndexedSettingsForDepartments(final String municipalityId, final List<String> departmentIds, final Specification<MessagingSettingEntity> filter) {
+		if (filter == null) {
+			return departmentIds.stream()
+				.map(departmentId -> snapshotCache.getByDepartmentId(municipalityId, departmentId))
+				.filter(not(List::isEmpty))
+				.findFirst()
+				.orElse(List.of());
+		}
+
+		// The filter can only be evaluated by the database, hence the indexed settings are narrowed down by primary key
+		final var ids = departmentIds.stream()
+			.map(departmentId -> snapshotCache.getByDepartmentId(municipalityId, departmentId))
+			.flatMap(List::stream)
+			.map(MessagingSettings::getId)
+			.distinct()
 			.toList();
+
+		if (ids.isEmpty()) {
+			return List.of();
+		}
+
+		final var candidates = messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId(municipalityId).and(matchesIds(ids)).and(filter));
+
+		return selectMostSpecificLevel(departmentIds, candidates);
+	}
+
+	private static List<MessagingSettings> selectMostSpecificLevel(final List<String> departmentIds, final List<MessagingSettings> candidates) {
+		return departmentIds.stream()
+			.map(departmentId -> candidates.stream()
+				.filter(setting -> hasDepartmentId(setting, departmentId))
+				.toList())
+			.filter(not(List::isEmpty))
+			.findFirst()
+			.orElse(List.of());
+	}
+
+	private static boolean hasDepartmentId(final MessagingSettings setting, final String departmentId) {
+		final var normalizedDepartmentId = normalize(departmentId);
+
+		return Optional.ofNullable(setting.getValues()).orElse(List.of()).stream()
+			.filter(value -> DEPARTMENT_ID.equalsIgnoreCase(value.getKey()))
+			.anyMatch(value -> Objects.equals(normalize(value.getValue()), normalizedDepartmentId));
 	}
 
 	/**
@@ -95,11 +257,46 @@ public class MessagingSettingsService {
 	 * @param  request        the object requested to create the setting
 	 * @return                the created MessagingSettings
 	 */
+	@Transactional
 	public MessagingSettings createMessagingSetting(final String municipalityId, final MessagingSettingsRequest request) {
 		final var savedEntity = messagingSettingRepository.save(toEntity(municipalityId, request));
+		messagingSettingVersionRepository.incrementVersion(municipalityId);
+		afterCommit(() -> {
+			snapshotCache.refresh(municipalityId);
+			resolvedSettingsCache.evict(municipalityId, departmentIdsOf(savedEntity), savedEntity.getId());
+		});
 		return EntityMapper.toMessagingSettings(savedEntity);
 	}
 
+	/**
+	 * Create new messaging settings in a single transaction. Settings and their values are inserted in JDBC batches,
+	 * and caches are refreshed once for the whole batch rather than once per setting.
+	 *
+	 * @param  municipalityId id of municipality
+	 * @param  requests       the objects requested to create the settings
+	 * @return                ids of the created settings, in the same order as the requests
+	 */
+	@Transactional
+	public List<String> createMessagingSettings(final String municipalityId, final List<MessagingSettingsRequest> requests) {
+		final var savedEntities = messagingSettingRepository.saveAll(requests.stream()
+			.map(request -> toEntity(municipalityId, request))
+			.toList());
+
+		messagingSettingVersionRepository.incrementVersion(municipalityId);
+		final var departmentIds = savedEntities.stream()
+			.map(MessagingSettingsService::departmentIdsOf)
+			.flatMap(List::stream)
+			.toList();
+		afterCommit(() -> {
+			snapshotCache.refresh(municipalityId);
+			resolvedSettingsCache.evict(municipalityId, departmentIds, null);
+		});
+
+		return savedEntities.stream()
+			.map(MessagingSettingEntity::getId)
+			.toList();
+	}
+
 	/**
 	 * Get a messaging setting by ID
 	 *
@@ -109,9 +306,9 @@ public class MessagingSettingsService {
 	 * @throws ThrowableProblem if no messaging setting is found
 	 */
 	public MessagingSettings getMessagingSettingById(final String municipalityId, final String id) {
-		final var entity = messagingSettingRepository.findByIdAndMunicipalityId(id, municipalityId)
+		return messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId(municipalityId).and(matchesIds(List.of(id)))).stream()
+			.findFirst()
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id)));
-		return EntityMapper.toMessagingSettings(entity);
 	}
 
 	/**
@@ -123,13 +320,81 @@ public class MessagingSettingsService {
 	 * @return                  the updated MessagingSettings
 	 * @throws ThrowableProblem if no messaging setting is found
 	 */
+	@Transactional
 	public MessagingSettings updateMessagingSetting(final String municipalityId, final String id, final MessagingSettingsRequest request) {
-		final var entity = messagingSettingRepository.findByIdAndMunicipalityId(id, municipalityId)
+		final var values = toEmbeddableValues(request.getValues());
+		return updateMessagingSetting(municipalityId, id, storedValues -> mergeValues(storedValues, values));
+	}
+
+	/**
+	 * Update a messaging setting by applying a JSON Patch document to its values, where each key holds an object with
+	 * the value and type. All operations are applied in one transaction, or none if any of them fails.
+	 *
+	 * @param  municipalityId   id of municipality
+	 * @param  id               id of the messaging setting to update
+	 * @param  patch            the JSON Patch document
+	 * @return                  the updated MessagingSettings
+	 * @throws ThrowableProblem if no messaging setting is found, if the patch is not valid or if a test operation fails
+	 */
+	@Transactional
+	public MessagingSettings patchMessagingSetting(final String municipalityId, final String id, final JsonNode patch) {
+		return updateMessagingSetting(municipalityId, id, storedValues -> ValuePatcher.applyJsonPatch(storedValues, patch));
+	}
+
+	/**
+	 * Update a messaging setting by applying a JSON Merge Patch document to its values, where each key holds an object
+	 * with the value and type. Keys set to null are removed.
+	 *
+	 * @param  municipalityId   id of municipality
+	 * @param  id               id of the messaging setting to update
+	 * @param  patch            the JSON Merge Patch document
+	 * @return                  the updated MessagingSettings
+	 * @throws ThrowableProblem if no messaging setting is found or if the patch is not valid
+	 */
+	@Transactional
+	public MessagingSettings mergePatchMessagingSetting(final String municipalityId, final String id, final JsonNode patch) {
+		return updateMessagingSetting(municipalityId, id, storedValues -> ValuePatcher.applyMergePatch(storedValues, patch));
+	}
+
+	private MessagingSettings updateMessagingSetting(final String municipalityId, final String id, final UnaryOperator<List<MessagingSettingValueEmbeddable>> update) {
+		final var previousEntity = messagingSettingRepository.updateValues(municipalityId, id, update)
 			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id)));
 
-		final var updatedEntity = updateEntity(entity, request);
-		final var savedEntity = messagingSettingRepository.save(updatedEntity);
-		return EntityMapper.toMessagingSettings(savedEntity);
+		messagingSettingVersionRepository.incrementVersion(municipalityId);
+
+		final var updatedSetting = getMessagingSettingById(municipalityId, id);
+		final var affectedDepartmentIds = new HashSet<>(departmentIdsOf(previousEntity));
+		affectedDepartmentIds.addAll(departmentIdsOf(updatedSetting));
+		afterCommit(() -> {
+			snapshotCache.refresh(municipalityId);
+			resolvedSettingsCache.evict(municipalityId, affectedDepartmentIds, id);
+		});
+		return updatedSetting;
+	}
+
+	/**
+	 * Update all messaging settings that match the provided filter, by upserting the requested values into each of them.
+	 * Values replace existing values with the same key, while other values are preserved. The values are written by
+	 * set-based statements within one transaction.
+	 *
+	 * @param  municipalityId id of municipality
+	 * @param  filter         filter selecting the settings to update
+	 * @param  request        the values to upsert
+	 * @return                the number of updated settings
+	 */
+	@Transactional
+	public int updateMessagingSettings(final String municipalityId, final Specification<MessagingSettingEntity> filter, final MessagingSettingsRequest request) {
+		final var affected = messagingSettingRepository.upsertValues(matchesMunicipalityId(municipalityId).and(filter), toEmbeddableValues(request.getValues()));
+
+		if (affected > 0) {
+			messagingSettingVersionRepository.incrementVersion(municipalityId);
+			afterCommit(() -> {
+				snapshotCache.refresh(municipalityId);
+				// The department ids of the updated settings are not known, hence every resolved setting of the municipality is evicted
+				resolvedSettingsCache.invalidate(municipalityId);
+			});
+		}
+		return affected;
 	}
 
 	/**
@@ -139,11 +404,18 @@ public class MessagingSettingsService {
 	 * @param  id               id of the messaging setting to delete
 	 * @throws ThrowableProblem if no messaging setting is found
 	 */
+	@Transactional
 	public void deleteMessagingSetting(final String municipalityId, final String id) {
-		final var entity = messagingSettingRepository.findByIdAndMunicipalityId(id, municipalityId)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id)));
+		if (messagingSettingRepository.deleteByIdAndMunicipalityId(id, municipalityId) == 0) {
+			throw Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id));
+		}
 
-		messagingSettingRepository.delete(entity);
+		// Only resolved settings that include the deleted setting can change, hence they are evicted by setting id alone
+		messagingSettingVersionRepository.incrementVersion(municipalityId);
+		afterCommit(() -> {
+			snapshotCache.refresh(municipalityId);
+			resolvedSettingsCache.evict(municipalityId, List.of(), id);
+		});
 	}
 
 	/**
@@ -154,17 +426,57 @@ public class MessagingSettingsService {
 	 * @param  key              the key to delete
 	 * @throws ThrowableProblem if no messaging setting is found or key doesn't exist
 	 */
+	@Transactional
 	public void deleteMessagingSettingKey(final String municipalityId, final String id, final String key) {
-		final var entity = messagingSettingRepository.findByIdAndMunicipalityId(id, municipalityId)
-			.orElseThrow(() -> Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id)));
+		// The department ids are read before the delete, as the deleted key may be the department id itself
+		final var departmentIds = messagingSettingRepository.findDepartmentIdsByIdAndMunicipalityId(id, municipalityId);
+		if (messagingSettingRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, municipalityId, key) == 0) {
+			// Nothing was deleted, the existence of the setting only decides which problem to report
+			if (!messagingSettingRepository.existsByIdAndMunicipalityId(id, municipalityId)) {
+				throw Problem.valueOf(NOT_FOUND, ERROR_MESSAGE_MESSAGING_SETTING_NOT_FOUND_BY_ID.formatted(municipalityId, id));
+			}
+			throw Problem.valueOf(NOT_FOUND, "Key '%s' not found in messaging setting with ID '%s' for municipality '%s'.".formatted(key, id, municipalityId));
+		}
 
-		final var values = entity.getValues();
-		final var removed = values.removeIf(value -> key.equals(value.getKey()));
+		messagingSettingVersionRepository.incrementVersion(municipalityId);
+		afterCommit(() -> {
+			snapshotCache.refresh(municipalityId);
+			resolvedSettingsCache.evict(municipalityId, departmentIds, id);
+		});
+	}
 
-		if (!removed) {
-			throw Problem.valueOf(NOT_FOUND, "Key '%s' not found in messaging setting with ID '%s' for municipality '%s'.".formatted(key, id, municipalityId));
+	/**
+	 * The caches of this instance are refreshed once the write and the version increment have been committed together.
+	 * A refresh made before the commit would read the settings as they were before the write, and the version increment
+	 * is what makes other instances refresh their caches.
+	 */
+	private static void afterCommit(final Runnable action) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
 		}
 
-		messagingSettingRepository.save(entity);
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+
+	private static List<String> departmentIdsOf(final MessagingSettings setting) {
+		return Optional.ofNullable(setting.getValues()).orElse(List.of()).stream()
+			.filter(value -> DEPARTMENT_ID.equalsIgnoreCase(value.getKey()))
+			.map(MessagingSettingValue::getValue)
+			.filter(Objects::nonNull)
+			.toList();
+	}
+
+	private static List<String> departmentIdsOf(final MessagingSettingEntity entity) {
+		return Optional.ofNullable(entity.getValues()).orElse(List.of()).stream()
+			.filter(value -> DEPARTMENT_ID.equalsIgnoreCase(value.getKey()))
+			.map(MessagingSettingValueEmbeddable::getValue)
+			.filter(Objects::nonNull)
+			.toList();
 	}
 }
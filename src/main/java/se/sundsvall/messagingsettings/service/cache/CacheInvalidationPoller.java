@@ -0,0 +1,69 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+
+/**
+ * Polls the settings version of each municipality and invalidates the cached settings of municipalities whose version
+ * has changed since the previous poll, e.g. by another instance of the service.
+ */
+@Component
+public class CacheInvalidationPoller {
+
+	static final String METRIC_INVALIDATIONS = "messagingsettings.cache.invalidations";
+
+	private final Map<String, Long> knownVersions = new ConcurrentHashMap<>();
+	private final MessagingSettingVersionRepository messagingSettingVersionRepository;
+	private final MessagingSettingsSnapshotCache snapshotCache;
+	private final ResolvedSettingsCache resolvedSettingsCache;
+	private final Counter invalidationCounter;
+
+	public CacheInvalidationPoller(final MessagingSettingVersionRepository messagingSettingVersionRepository, final MessagingSettingsSnapshotCache snapshotCache,
+		final ResolvedSettingsCache resolvedSettingsCache, final MeterRegistry meterRegistry) {
+		this.messagingSettingVersionRepository = messagingSettingVersionRepository;
+		this.snapshotCache = snapshotCache;
+		this.resolvedSettingsCache = resolvedSettingsCache;
+		this.invalidationCounter = Counter.builder(METRIC_INVALIDATIONS).register(meterRegistry);
+	}
+
+	@Scheduled(initialDelayString = "${cache.invalidation.poll-interval}", fixedDelayString = "${cache.invalidation.poll-interval}")
+	public void poll() {
+		if (!snapshotCache.isEnabled() && !resolvedSettingsCache.isEnabled()) {
+			return;
+		}
+
+		messagingSettingVersionRepository.findAll().forEach(this::invalidateIfChanged);
+	}
+
+	/**
+	 * Method records the current version of every municipality without invalidating any cached settings. Does nothing if
+	 * both caches are disabled.
+	 */
+	public void recordVersions() {
+		if (!snapshotCache.isEnabled() && !resolvedSettingsCache.isEnabled()) {
+			return;
+		}
+
+		messagingSettingVersionRepository.findAll().forEach(version -> knownVersions.put(version.getMunicipalityId(), version.getVersion()));
+	}
+
+	/**
+	 * A municipality not seen before is invalidated as well, as it has got its first version after the versions were
+	 * recorded (or they could not be recorded at all), and its settings may have been cached in between.
+	 */
+	private void invalidateIfChanged(final MessagingSettingVersionEntity version) {
+		final var previousVersion = knownVersions.put(version.getMunicipalityId(), version.getVersion());
+		if (!Objects.equals(previousVersion, version.getVersion())) {
+			snapshotCache.invalidate(version.getMunicipalityId(), version.getVersion());
+			resolvedSettingsCache.invalidate(version.getMunicipalityId());
+			invalidationCounter.increment();
+		}
+	}
+}
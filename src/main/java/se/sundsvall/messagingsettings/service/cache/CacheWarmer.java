@@ -0,0 +1,124 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.employee.configuration.EmployeeProperties;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.CREATED;
+import static se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity_.ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.DEPARTMENT_ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+
+/**
+ * Warms up the instance at startup, before it is reported ready, by running the projection-based reads that serve
+ * production traffic for every municipality that has an employee domain configured and then loading its snapshot.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner {
+
+	static final String METRIC_WARMUP = "messagingsettings.warmup";
+	static final String METRIC_WARMUP_FAILURES = "messagingsettings.warmup.failures";
+	static final int PAGE_SIZE = 100;
+
+	private final MessagingSettingRepository messagingSettingRepository;
+	private final MessagingSettingsSnapshotCache snapshotCache;
+	private final CacheInvalidationPoller invalidationPoller;
+	private final EmployeeProperties employeeProperties;
+	private final CacheProperties.Warmup warmup;
+	private final Timer warmupTimer;
+	private final Counter failureCounter;
+
+	public CacheWarmer(final MessagingSettingRepository messagingSettingRepository, final MessagingSettingsSnapshotCache snapshotCache,
+		final CacheInvalidationPoller invalidationPoller, final EmployeeProperties employeeProperties, final CacheProperties cacheProperties, final MeterRegistry meterRegistry) {
+		this.messagingSettingRepository = messagingSettingRepository;
+		this.snapshotCache = snapshotCache;
+		this.invalidationPoller = invalidationPoller;
+		this.employeeProperties = employeeProperties;
+		this.warmup = cacheProperties.warmup();
+		this.warmupTimer = Timer.builder(METRIC_WARMUP).register(meterRegistry);
+		this.failureCounter = Counter.builder(METRIC_WARMUP_FAILURES).register(meterRegistry);
+	}
+
+	@Override
+	public void run(final ApplicationArguments arguments) {
+		recordVersions();
+		if (!warmup.enabled()) {
+			return;
+		}
+
+		warmupTimer.record(() -> Optional.ofNullable(employeeProperties.domains())
+			.map(Map::keySet)
+			.orElse(Set.of())
+			.forEach(this::warmUp));
+	}
+
+	/**
+	 * Versions are recorded before warming up, so that the first poll does not discard the settings loaded here. Failing
+	 * to record them only means that the first poll invalidates every municipality.
+	 */
+	private void recordVersions() {
+		try {
+			invalidationPoller.recordVersions();
+		} catch (final RuntimeException _) {
+			failureCounter.increment();
+		}
+	}
+
+	/**
+	 * A failing warm-up must not prevent the instance from starting, hence failures are only counted and the remaining
+	 * municipalities are warmed up as usual.
+	 */
+	private void warmUp(final String municipalityId) {
+		try {
+			for (var i = 0; i < warmup.iterations(); i++) {
+				final var departmentIds = departmentIdsOf(findSettings(municipalityId));
+				if (!departmentIds.isEmpty()) {
+					messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId(municipalityId).and(matchesDepartmentIds(departmentIds)));
+				}
+				findFirstPage(municipalityId);
+			}
+			snapshotCache.refresh(municipalityId);
+		} catch (final RuntimeException _) {
+			failureCounter.increment();
+		}
+	}
+
+	private List<MessagingSettings> findSettings(final String municipalityId) {
+		return messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId(municipalityId));
+	}
+
+	private void findFirstPage(final String municipalityId) {
+		final var ids = messagingSettingRepository.findIdsOrderedByCreatedAndId(matchesMunicipalityId(municipalityId), PAGE_SIZE);
+		if (!ids.isEmpty()) {
+			messagingSettingRepository.findAllAsMessagingSettings(matchesIds(ids), Sort.by(CREATED, ID));
+		}
+	}
+
+	private static List<String> departmentIdsOf(final List<MessagingSettings> settings) {
+		return settings.stream()
+			.map(MessagingSettings::getValues)
+			.filter(Objects::nonNull)
+			.flatMap(List::stream)
+			.filter(value -> DEPARTMENT_ID.equalsIgnoreCase(value.getKey()))
+			.map(MessagingSettingValue::getValue)
+			.filter(Objects::nonNull)
+			.distinct()
+			.toList();
+	}
+}
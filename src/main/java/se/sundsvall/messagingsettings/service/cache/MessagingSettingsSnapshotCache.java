@@ -0,0 +1,177 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
+import se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.collectingAndThen;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.DEPARTMENT_ID;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+
+/**
+ * Holds an immutable in-memory snapshot of all messaging settings per municipality, loaded on first read and replaced
+ * as a whole on refresh.
+ */
+@Component
+public class MessagingSettingsSnapshotCache {
+
+	static final String METRIC_GETS = "messagingsettings.snapshot.gets";
+	static final String METRIC_REBUILD = "messagingsettings.snapshot.rebuild";
+
+	private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+	private final Map<String, Long> minimumVersions = new ConcurrentHashMap<>();
+	private final MessagingSettingRepository messagingSettingRepository;
+	private final MessagingSettingVersionRepository messagingSettingVersionRepository;
+	private final boolean enabled;
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Timer rebuildTimer;
+
+	public MessagingSettingsSnapshotCache(final MessagingSettingRepository messagingSettingRepository, final MessagingSettingVersionRepository messagingSettingVersionRepository,
+		final CacheProperties cacheProperties, final MeterRegistry meterRegistry) {
+		this.messagingSettingRepository = messagingSettingRepository;
+		this.messagingSettingVersionRepository = messagingSettingVersionRepository;
+		this.enabled = cacheProperties.snapshot().enabled();
+		this.hitCounter = Counter.builder(METRIC_GETS).tag("result", "hit").register(meterRegistry);
+		this.missCounter = Counter.builder(METRIC_GETS).tag("result", "miss").register(meterRegistry);
+		this.rebuildTimer = Timer.builder(METRIC_REBUILD).register(meterRegistry);
+	}
+
+	/**
+	 * Method returns if snapshot mode is enabled
+	 *
+	 * @return true if unfiltered reads should be served from the snapshot
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Method returns all messaging settings for the municipality, loading a snapshot from the database if none exists yet
+	 *
+	 * @param  municipalityId id of municipality to return settings for
+	 * @return                an unmodifiable list of all messaging settings within the municipality
+	 */
+	public List<MessagingSettings> get(final String municipalityId) {
+		return getSnapshot(municipalityId).settings();
+	}
+
+	/**
+	 * Method returns the messaging settings within the municipality that has a department id matching the provided value.
+	 * Matching is made case-insensitive through a lookup in the department index of the snapshot.
+	 *
+	 * @param  municipalityId id of municipality to return settings for
+	 * @param  departmentId   id of department to match
+	 * @return                an unmodifiable list of matching messaging settings, or an empty list if no setting matches
+	 */
+	public List<MessagingSettings> getByDepartmentId(final String municipalityId, final String departmentId) {
+		return ofNullable(departmentId)
+			.map(EntityMapper::normalize)
+			.map(getSnapshot(municipalityId).departmentIndex()::get)
+			.orElse(List.of());
+	}
+
+	/**
+	 * Method rebuilds the snapshot for the municipality from the database and swaps it in place of the current one, unless
+	 * the current one has been loaded from a newer version in the meantime. Does nothing if snapshot mode is disabled.
+	 *
+	 * @param municipalityId id of municipality to rebuild snapshot for
+	 */
+	public void refresh(final String municipalityId) {
+		if (enabled) {
+			store(municipalityId, load(municipalityId));
+		}
+	}
+
+	/**
+	 * Method discards the snapshot for the municipality if it has been loaded from an older version than the provided one,
+	 * and makes sure that no snapshot loaded from an older version is stored afterwards
+	 *
+	 * @param municipalityId id of municipality to discard snapshot for
+	 * @param version        the version that a snapshot of the municipality must have been loaded from to be kept
+	 */
+	public void invalidate(final String municipalityId, final long version) {
+		minimumVersions.merge(municipalityId, version, Math::max);
+		snapshots.computeIfPresent(municipalityId, (_, current) -> current.version() >= version ? current : null);
+	}
+
+	private Snapshot getSnapshot(final String municipalityId) {
+		final var snapshot = snapshots.get(municipalityId);
+		if (snapshot != null) {
+			hitCounter.increment();
+			return snapshot;
+		}
+
+		missCounter.increment();
+		return store(municipalityId, load(municipalityId));
+	}
+
+	/**
+	 * Loads racing each other may complete in any order, hence a loaded snapshot is only swapped in if the current one has
+	 * been loaded from the same or an older version. A snapshot loaded from an older version than the municipality has
+	 * been invalidated for is returned to the caller but never stored.
+	 */
+	private Snapshot store(final String municipalityId, final Snapshot loaded) {
+		final var stored = snapshots.compute(municipalityId, (_, current) -> {
+			if (loaded.version() < minimumVersions.getOrDefault(municipalityId, 0L)) {
+				return current;
+			}
+			return current == null || loaded.version() >= current.version() ? loaded : current;
+		});
+		return Objects.requireNonNullElse(stored, loaded);
+	}
+
+	/**
+	 * The version is read before the settings, so a snapshot is never stamped with a newer version than its settings.
+	 */
+	private Snapshot load(final String municipalityId) {
+		return rebuildTimer.record(() -> {
+			final var version = messagingSettingVersionRepository.findById(municipalityId)
+				.map(MessagingSettingVersionEntity::getVersion)
+				.orElse(0L);
+			final var settings = messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId(municipalityId));
+
+			return new Snapshot(version, settings, toDepartmentIndex(settings));
+		});
+	}
+
+	private static Map<String, List<MessagingSettings>> toDepartmentIndex(final List<MessagingSettings> settings) {
+		return settings.stream()
+			.flatMap(setting -> ofNullable(setting.getValues()).orElse(List.of()).stream()
+				.filter(value -> DEPARTMENT_ID.equalsIgnoreCase(value.getKey()))
+				.map(MessagingSettingValue::getValue)
+				.filter(Objects::nonNull)
+				.map(EntityMapper::normalize)
+				.distinct()
+				.map(departmentId -> Map.entry(departmentId, setting)))
+			.collect(collectingAndThen(
+				groupingBy(Map.Entry::getKey, collectingAndThen(
+					mapping(Map.Entry::getValue, toList()), List::copyOf)),
+				Map::copyOf));
+	}
+
+	/**
+	 * Immutable view of all settings within a municipality together with an index of the settings by department id, and the
+	 * version of the settings it was loaded from.
+	 */
+	private record Snapshot(
+		long version,
+		List<MessagingSettings> settings,
+		Map<String, List<MessagingSettings>> departmentIndex) {}
+}
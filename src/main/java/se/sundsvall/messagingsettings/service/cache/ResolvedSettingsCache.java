@@ -0,0 +1,181 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+/**
+ * Holds the messaging settings resolved for a user, keyed by municipality, login name and filter. Entries remember the
+ * departments of the user and the ids of the resolved settings, so that a change of a setting evicts only the entries
+ * it can affect.
+ */
+@Component
+public class ResolvedSettingsCache {
+
+	static final String CACHE_NAME = "messagingsettings.resolved";
+
+	private static final String NO_FILTER = "";
+
+	private final boolean enabled;
+	private final FilterStringConverter filterStringConverter;
+	private final Cache<CacheKey, CacheEntry> cache;
+	private final Map<String, Long> generations = new ConcurrentHashMap<>();
+
+	public ResolvedSettingsCache(final CacheProperties cacheProperties, final FilterStringConverter filterStringConverter, final MeterRegistry meterRegistry) {
+		this.enabled = cacheProperties.resolved().enabled();
+		this.filterStringConverter = filterStringConverter;
+		this.cache = Caffeine.newBuilder()
+			.expireAfterWrite(cacheProperties.resolved().timeToLive())
+			.maximumSize(cacheProperties.resolved().maximumSize())
+			.recordStats()
+			.build();
+
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+	}
+
+	/**
+	 * Method returns if the cache is enabled
+	 *
+	 * @return true if settings resolved for users are cached
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Method returns the cached settings resolved for the user and filter, if any
+	 *
+	 * @param  municipalityId id of municipality
+	 * @param  loginName      login name of the user
+	 * @param  filter         filter that was applied when the settings were resolved (or null)
+	 * @return                an optional with the cached settings, or an empty optional if nothing is cached
+	 */
+	public Optional<List<MessagingSettings>> get(final String municipalityId, final String loginName, final Specification<MessagingSettingEntity> filter) {
+		return toCacheKey(municipalityId, loginName, filter)
+			.map(cache::getIfPresent)
+			.map(CacheEntry::settings);
+	}
+
+	/**
+	 * Method returns the current generation of the municipality, to be read before settings are resolved
+	 *
+	 * @param  municipalityId id of municipality
+	 * @return                the current generation of the municipality
+	 */
+	public long generation(final String municipalityId) {
+		return generations.getOrDefault(municipalityId, 0L);
+	}
+
+	/**
+	 * Method caches the settings resolved for the user and filter. Does nothing if the cache is disabled, if the filter
+	 * can not be represented as a cache key or if entries within the municipality have been evicted since the provided
+	 * generation was read.
+	 *
+	 * @param municipalityId id of municipality
+	 * @param loginName      login name of the user
+	 * @param filter         filter that was applied when resolving the settings (or null)
+	 * @param departmentIds  ids of all departments of the user that took part in resolving the settings
+	 * @param settings       the resolved settings
+	 * @param generation     generation of the municipality, as read before the settings were resolved
+	 */
+	public void put(final String municipalityId, final String loginName, final Specification<MessagingSettingEntity> filter, final Collection<String> departmentIds,
+		final List<MessagingSettings> settings, final long generation) {
+
+		toCacheKey(municipalityId, loginName, filter).ifPresent(cacheKey -> generations.compute(municipalityId, (_, current) -> {
+			if (Objects.requireNonNullElse(current, 0L) == generation) {
+				cache.put(cacheKey, new CacheEntry(
+					normalize(departmentIds),
+					settings.stream().map(MessagingSettings::getId).filter(Objects::nonNull).collect(toUnmodifiableSet()),
+					List.copyOf(settings)));
+			}
+			return current;
+		}));
+	}
+
+	/**
+	 * Method evicts all entries within the municipality that a change of a setting can affect, i.e. entries for users
+	 * belonging to any of the provided departments and entries containing the setting
+	 *
+	 * @param municipalityId id of municipality
+	 * @param departmentIds  department ids of the changed setting, both before and after the change
+	 * @param settingId      id of the changed setting (or null)
+	 */
+	public void evict(final String municipalityId, final Collection<String> departmentIds, final String settingId) {
+		if (!enabled) {
+			return;
+		}
+
+		final var normalizedDepartmentIds = normalize(departmentIds);
+		nextGeneration(municipalityId);
+		cache.asMap().entrySet().removeIf(entry -> entry.getKey().municipalityId().equals(municipalityId) &&
+			(nonNull(settingId) && entry.getValue().settingIds().contains(settingId) || !Collections.disjoint(entry.getValue().departmentIds(), normalizedDepartmentIds)));
+	}
+
+	/**
+	 * Method evicts all entries within the municipality
+	 *
+	 * @param municipalityId id of municipality
+	 */
+	public void invalidate(final String municipalityId) {
+		nextGeneration(municipalityId);
+		cache.asMap().keySet().removeIf(cacheKey -> cacheKey.municipalityId().equals(municipalityId));
+	}
+
+	/**
+	 * The generation is advanced before entries are removed, and entries are only added while the generation is held
+	 * unchanged, hence an entry resolved before an eviction is either removed by it or never added.
+	 */
+	private void nextGeneration(final String municipalityId) {
+		generations.merge(municipalityId, 1L, Long::sum);
+	}
+
+	/**
+	 * Filters are cached by their normalized string representation. Specifications that are not created from a filter
+	 * string have no such representation and are never cached.
+	 */
+	private Optional<CacheKey> toCacheKey(final String municipalityId, final String loginName, final Specification<MessagingSettingEntity> filter) {
+		if (!enabled) {
+			return Optional.empty();
+		}
+		if (filter == null) {
+			return Optional.of(new CacheKey(municipalityId, loginName, NO_FILTER));
+		}
+		if (filter instanceof final FilterSpecification<?> filterSpecification && filterSpecification.getFilter() != null) {
+			return Optional.of(new CacheKey(municipalityId, loginName, filterStringConverter.convert(filterSpecification.getFilter())));
+		}
+		return Optional.empty();
+	}
+
+	private static Set<String> normalize(final Collection<String> departmentIds) {
+		return Optional.ofNullable(departmentIds).orElse(List.of()).stream()
+			.map(EntityMapper::normalize)
+			.filter(Objects::nonNull)
+			.collect(toUnmodifiableSet());
+	}
+
+	private record CacheKey(String municipalityId, String loginName, String filter) {
+	}
+
+	private record CacheEntry(Set<String> departmentIds, Set<String> settingIds, List<MessagingSettings> settings) {
+	}
+}
@@ -0,0 +1,58 @@
+package se.sundsvall.messagingsettings.service.cache.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "cache")
+public record CacheProperties(
+	@DefaultValue Snapshot snapshot,
+	@DefaultValue Resolved resolved,
+	@DefaultValue Invalidation invalidation,
+	@DefaultValue Warmup warmup) {
+
+	/**
+	 * Settings for the in-memory snapshot of all messaging settings per municipality
+	 *
+	 * @param enabled true if unfiltered reads should be served from the snapshot, false (default) to always read from the
+	 *                database
+	 */
+	public record Snapshot(
+		boolean enabled) {
+	}
+
+	/**
+	 * Settings for the cache of messaging settings resolved for users
+	 *
+	 * @param enabled     true if settings resolved for a user should be cached, false (default) to resolve them on each
+	 *                    request
+	 * @param timeToLive  how long resolved settings are cached
+	 * @param maximumSize the maximum number of cached results
+	 */
+	public record Resolved(
+		boolean enabled,
+		@DefaultValue("PT5M") Duration timeToLive,
+		@DefaultValue("10000") long maximumSize) {
+	}
+
+	/**
+	 * Settings for the invalidation of cached messaging settings that have been changed by other instances of the service
+	 *
+	 * @param pollInterval how often the versions of the messaging settings are polled, which bounds how long changes made
+	 *                     by other instances may go unnoticed
+	 */
+	public record Invalidation(
+		@DefaultValue("PT10S") Duration pollInterval) {
+	}
+
+	/**
+	 * Settings for the warm-up that is executed at startup, before the instance reports itself ready to receive traffic
+	 *
+	 * @param enabled    true if messaging settings should be preloaded at startup, false (default) to start cold
+	 * @param iterations the number of times the read paths are exercised for each municipality
+	 */
+	public record Warmup(
+		boolean enabled,
+		@DefaultValue("10") int iterations) {
+	}
+}
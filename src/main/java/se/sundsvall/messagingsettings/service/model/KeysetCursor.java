@@ -0,0 +1,61 @@
+package se.sundsvall.messagingsettings.service.model;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+/**
+ * Position of a messaging setting when settings are ordered by creation time and id, exchanged with clients as an opaque
+ * cursor string. A setting without creation time is positioned before all settings having one.
+ */
+public record KeysetCursor(
+	OffsetDateTime created,
+	String id) {
+
+	static final String ERROR_MESSAGE_INVALID_CURSOR = "Cursor '%s' is not valid.";
+	private static final String SEPARATOR = "|";
+
+	/**
+	 * Method returns the position of the provided messaging setting
+	 *
+	 * @param  setting the setting to return the position for
+	 * @return         the position of the setting
+	 */
+	public static KeysetCursor of(final MessagingSettings setting) {
+		return new KeysetCursor(setting.getCreated(), setting.getId());
+	}
+
+	/**
+	 * Method decodes a cursor string previously created by {@link #encode()}
+	 *
+	 * @param  cursor           the cursor string to decode
+	 * @return                  the decoded position
+	 * @throws ThrowableProblem with status bad request if the cursor string is not valid
+	 */
+	public static KeysetCursor decode(final String cursor) {
+		try {
+			final var decoded = new String(Base64.getUrlDecoder().decode(cursor), UTF_8);
+			final var separatorIndex = decoded.indexOf(SEPARATOR);
+			final var created = decoded.substring(0, separatorIndex);
+			return new KeysetCursor(created.isEmpty() ? null : OffsetDateTime.parse(created), decoded.substring(separatorIndex + 1));
+		} catch (final IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException _) {
+			throw Problem.valueOf(BAD_REQUEST, ERROR_MESSAGE_INVALID_CURSOR.formatted(cursor));
+		}
+	}
+
+	/**
+	 * Method encodes the position into an opaque, url safe cursor string
+	 *
+	 * @return the encoded cursor string
+	 */
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString((Objects.toString(created, "") + SEPARATOR + id).getBytes(UTF_8));
+	}
+}
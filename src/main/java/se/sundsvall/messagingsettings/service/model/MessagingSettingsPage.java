@@ -0,0 +1,8 @@
+package se.sundsvall.messagingsettings.service.model;
+
+import java.util.List;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+
+public record MessagingSettingsPage(
+	List<MessagingSettings> settings,
+	String nextCursor) {}
@@ -0,0 +1,213 @@
+package se.sundsvall.messagingsettings.service.patch;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import se.sundsvall.dept44.problem.Problem;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
+import tools.jackson.core.JsonPointer;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.node.JsonNodeFactory;
+import tools.jackson.databind.node.ObjectNode;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+
+/**
+ * Applies JSON Patch (RFC 6902) and JSON Merge Patch (RFC 7396) documents to the values of a messaging setting. Patches
+ * are applied to a view of the values indexed by key, e.g.
+ * {@code {"sms_sender": {"value": "Sundsvall", "type": "STRING"}}}, where keys holding several values are represented by
+ * their first value and keep all values unless patched.
+ */
+public final class ValuePatcher {
+
+	private static final String VALUE = "value";
+	private static final String TYPE = "type";
+
+	private ValuePatcher() {}
+
+	/**
+	 * Applies a JSON Patch document to the values. The operations add, remove, replace, move, copy and test are
+	 * supported, and are applied in order.
+	 *
+	 * @param  values           the values to patch
+	 * @param  patch            the JSON Patch document, an array of operations
+	 * @return                  the patched values
+	 * @throws ThrowableProblem with status BAD_REQUEST if the patch is not valid or can not be applied, and with status
+	 *                          CONFLICT if a test operation fails
+	 */
+	public static List<MessagingSettingValueEmbeddable> applyJsonPatch(final List<MessagingSettingValueEmbeddable> values, final JsonNode patch) {
+		if (patch == null || !patch.isArray()) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Patch must be an array of operations.");
+		}
+
+		var document = toDocument(values);
+		for (final var operation : patch) {
+			document = applyOperation(document, operation);
+		}
+		return fromDocument(document, values);
+	}
+
+	/**
+	 * Applies a JSON Merge Patch document to the values. Keys set to null are removed, and the value or type of other keys
+	 * is merged into the values.
+	 *
+	 * @param  values           the values to patch
+	 * @param  patch            the JSON Merge Patch document, an object indexed by key
+	 * @return                  the patched values
+	 * @throws ThrowableProblem with status BAD_REQUEST if the patch is not valid or results in invalid values
+	 */
+	public static List<MessagingSettingValueEmbeddable> applyMergePatch(final List<MessagingSettingValueEmbeddable> values, final JsonNode patch) {
+		if (patch == null || !patch.isObject()) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Merge Patch must be an object indexed by key.");
+		}
+
+		return fromDocument((ObjectNode) mergePatch(toDocument(values), patch), values);
+	}
+
+	private static JsonNode mergePatch(final JsonNode target, final JsonNode patch) {
+		if (!patch.isObject()) {
+			return patch;
+		}
+
+		final var result = target != null && target.isObject() ? (ObjectNode) target : JsonNodeFactory.instance.objectNode();
+		patch.properties().forEach(property -> {
+			if (property.getValue().isNull()) {
+				result.remove(property.getKey());
+			} else {
+				result.set(property.getKey(), mergePatch(result.get(property.getKey()), property.getValue()));
+			}
+		});
+		return result;
+	}
+
+	private static ObjectNode applyOperation(final ObjectNode document, final JsonNode operation) {
+		final var op = requiredString(operation, "op");
+		final var path = pointer(requiredString(operation, "path"));
+
+		return switch (op) {
+			case "add" -> add(document, path, requiredValue(operation));
+			case "remove" -> {
+				remove(document, path);
+				yield document;
+			}
+			case "replace" -> {
+				if (!path.matches()) {
+					remove(document, path);
+				}
+				yield add(document, path, requiredValue(operation));
+			}
+			case "move" -> {
+				final var from = pointer(requiredString(operation, "from"));
+				yield add(document, path, remove(document, from));
+			}
+			case "copy" -> add(document, path, existing(document, pointer(requiredString(operation, "from"))).deepCopy());
+			case "test" -> {
+				if (!existing(document, path).equals(requiredValue(operation))) {
+					throw Problem.valueOf(CONFLICT, "JSON Patch test failed for path '%s'.".formatted(path));
+				}
+				yield document;
+			}
+			default -> throw Problem.valueOf(BAD_REQUEST, "JSON Patch operation '%s' is not supported.".formatted(op));
+		};
+	}
+
+	private static ObjectNode add(final ObjectNode document, final JsonPointer path, final JsonNode value) {
+		if (path.matches()) {
+			if (!value.isObject()) {
+				throw Problem.valueOf(BAD_REQUEST, "JSON Patch can not replace the values with a non-object.");
+			}
+			return (ObjectNode) value;
+		}
+
+		final var parent = document.at(path.head());
+		if (!parent.isObject()) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Patch path '%s' does not exist.".formatted(path));
+		}
+		((ObjectNode) parent).set(path.last().getMatchingProperty(), value);
+		return document;
+	}
+
+	private static JsonNode remove(final ObjectNode document, final JsonPointer path) {
+		existing(document, path);
+		if (path.matches()) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Patch can not remove the values.");
+		}
+		return ((ObjectNode) document.at(path.head())).remove(path.last().getMatchingProperty());
+	}
+
+	private static JsonNode existing(final ObjectNode document, final JsonPointer path) {
+		final var node = document.at(path);
+		if (node.isMissingNode() || !path.matches() && !document.at(path.head()).isObject()) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Patch path '%s' does not exist.".formatted(path));
+		}
+		return node;
+	}
+
+	private static JsonPointer pointer(final String path) {
+		try {
+			return JsonPointer.compile(path);
+		} catch (final IllegalArgumentException _) {
+			throw Problem.valueOf(BAD_REQUEST, "JSON Patch path '%s' is not a valid JSON Pointer.".formatted(path));
+		}
+	}
+
+	private static String requiredString(final JsonNode operation, final String name) {
+		return Optional.ofNullable(operation.get(name))
+			.filter(JsonNode::isString)
+			.map(JsonNode::stringValue)
+			.orElseThrow(() -> Problem.valueOf(BAD_REQUEST, "JSON Patch operation is missing '%s'.".formatted(name)));
+	}
+
+	private static JsonNode requiredValue(final JsonNode operation) {
+		return Optional.ofNullable(operation.get(VALUE))
+			.orElseThrow(() -> Problem.valueOf(BAD_REQUEST, "JSON Patch operation is missing 'value'."));
+	}
+
+	private static ObjectNode toDocument(final List<MessagingSettingValueEmbeddable> values) {
+		final var document = JsonNodeFactory.instance.objectNode();
+		values.stream()
+			.filter(value -> !document.has(value.getKey()))
+			.forEach(value -> document.putObject(value.getKey())
+				.put(VALUE, value.getValue())
+				.put(TYPE, value.getType().name()));
+		return document;
+	}
+
+	/**
+	 * Keys that are unchanged in the patched document keep all of their values, including any that were not represented
+	 * in the document
+	 */
+	private static List<MessagingSettingValueEmbeddable> fromDocument(final ObjectNode document, final List<MessagingSettingValueEmbeddable> values) {
+		final var valuesByKey = values.stream().collect(groupingBy(MessagingSettingValueEmbeddable::getKey, LinkedHashMap::new, toList()));
+		final var original = toDocument(values);
+
+		return document.properties().stream()
+			.flatMap(property -> property.getValue().equals(original.get(property.getKey()))
+				? valuesByKey.get(property.getKey()).stream()
+				: Stream.of(toValue(property.getKey(), property.getValue())))
+			.toList();
+	}
+
+	private static MessagingSettingValueEmbeddable toValue(final String key, final JsonNode node) {
+		final var value = Optional.ofNullable(node.get(VALUE)).filter(JsonNode::isString).map(JsonNode::stringValue).filter(string -> !string.isBlank());
+		final var type = Optional.ofNullable(node.get(TYPE)).filter(JsonNode::isString).map(JsonNode::stringValue)
+			.filter(string -> Arrays.stream(ValueType.values()).anyMatch(valueType -> valueType.name().equals(string)));
+
+		if (key.isBlank() || !node.isObject() || node.size() != 2 || value.isEmpty() || type.isEmpty()) {
+			throw Problem.valueOf(BAD_REQUEST, "Key '%s' must hold an object with a non-blank value and a type of %s.".formatted(key, Arrays.toString(ValueType.values())));
+		}
+
+		return MessagingSettingValueEmbeddable.builder()
+			.withKey(key)
+			.withValue(value.get())
+			.withType(ValueType.valueOf(type.get()))
+			.build();
+	}
+}
@@ -0,0 +1,4 @@
+create index idx_messaging_setting_municipality_id_created_id
+    on messaging_setting (municipality_id, created, id);
+
+drop index idx_messaging_setting_municipality_id on messaging_setting;
@@ -0,0 +1,9 @@
+alter table messaging_setting_value
+    add column value_numeric decimal(38,10) as (case when `type` = 'NUMERIC' and trim(`value`) regexp '^[+-]?[0-9]{1,28}([.][0-9]{1,10})?$' then cast(trim(`value`) as decimal(38,10)) end) stored,
+    add column value_boolean boolean as (case when `type` = 'BOOLEAN' and lower(trim(`value`)) in ('true', 'false') then lower(trim(`value`)) = 'true' end) stored;
+
+create index idx_messaging_setting_value_value_numeric
+    on messaging_setting_value (value_numeric, key_norm, messaging_setting_id);
+
+create index idx_messaging_setting_value_key_norm_value_boolean
+    on messaging_setting_value (key_norm, value_boolean, messaging_setting_id);
@@ -0,0 +1,8 @@
+alter table messaging_setting_value
+    drop foreign key fk_messaging_setting_value_messaging_setting;
+
+alter table messaging_setting_value
+    add constraint fk_messaging_setting_value_messaging_setting
+    foreign key (messaging_setting_id)
+    references messaging_setting (id)
+    on delete cascade;
@@ -0,0 +1,6 @@
+update messaging_setting
+    set created = coalesce(updated, utc_timestamp(6))
+    where created is null;
+
+alter table messaging_setting
+    modify created datetime(6) not null;
@@ -0,0 +1,5 @@
+alter table messaging_setting_value
+    add column value_norm_hash char(64) as (sha2(lower(trim(`value`)), 256)) stored;
+
+create index idx_messaging_setting_value_key_norm_value_norm_hash
+    on messaging_setting_value (key_norm, value_norm_hash, messaging_setting_id);
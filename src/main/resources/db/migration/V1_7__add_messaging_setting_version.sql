@@ -0,0 +1,7 @@
+-- Create table holding a version per municipality, incremented on every change of a messaging setting
+create table messaging_setting_version (
+    municipality_id varchar(5) not null,
+    updated datetime(6),
+    version bigint not null,
+    primary key (municipality_id)
+) engine=InnoDB;
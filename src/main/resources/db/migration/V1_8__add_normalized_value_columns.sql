@@ -0,0 +1,6 @@
+alter table messaging_setting_value
+    add column key_norm varchar(255) as (lower(trim(`key`))) stored,
+    add column value_norm varchar(255) as (left(lower(trim(`value`)), 255)) stored;
+
+create index idx_messaging_setting_value_key_norm_value_norm
+    on messaging_setting_value (key_norm, value_norm, messaging_setting_id);
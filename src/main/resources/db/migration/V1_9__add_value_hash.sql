@@ -0,0 +1,6 @@
+alter table messaging_setting_value
+    add column value_hash char(64) as (sha2(`value`, 256)) stored;
+
+alter table messaging_setting_value
+    drop index uk_messaging_setting_id_key_value,
+    add constraint uk_messaging_setting_id_key_value_hash unique (messaging_setting_id, `key`, value_hash);
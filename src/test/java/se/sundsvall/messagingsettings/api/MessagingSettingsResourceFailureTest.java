@@ -1,11 +1,15 @@
 package se.sundsvall.messagingsettings.api;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -27,6 +31,8 @@ import static org.springframework.boot.test.context.SpringBootTest.WebEnvironmen
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static se.sundsvall.messagingsettings.api.MessagingSettingsResource.APPLICATION_JSON_PATCH_VALUE;
+import static se.sundsvall.messagingsettings.api.MessagingSettingsResource.APPLICATION_MERGE_PATCH_VALUE;
 
 @SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
 @AutoConfigureWebTestClient
@@ -62,6 +68,51 @@ class MessagingSettingsResourceFailureTest {
 		verifyNoInteractions(messagingSettingsServiceMock);
 	}
 
+	@ParameterizedTest
+	@ValueSource(ints = {
+		0, 1001
+	})
+	void fetchMessagingSettingsWithFaultyLimit(final int limit) {
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}").queryParam("limit", limit).build(Map.of("municipalityId", "2281")))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getTitle()).isEqualTo("Constraint Violation");
+		assertThat(response.getViolations()).hasSize(1)
+			.extracting(Violation::field)
+			.containsExactly("fetchMessagingSettings.limit");
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
+	@Test
+	void exportMessagingSettingsWithFaultyMunicipalityId() {
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/export").build(Map.of("municipalityId", "9999")))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getStatus()).isEqualTo(BAD_REQUEST);
+		assertThat(response.getTitle()).isEqualTo("Constraint Violation");
+		assertThat(response.getViolations()).hasSize(1)
+			.extracting(
+				Violation::field,
+				Violation::message)
+			.contains(tuple(
+				"exportMessagingSettings.municipalityId",
+				"not a valid municipality ID"));
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
 	@Test
 	void fetchMessagingSettingsForUserWithFaultyMunicipalityId() {
 		final var response = webTestClient.get()
@@ -202,6 +253,87 @@ class MessagingSettingsResourceFailureTest {
 		verifyNoInteractions(messagingSettingsServiceMock);
 	}
 
+	@ParameterizedTest
+	@ValueSource(ints = {
+		0, 1001
+	})
+	void createMessagingSettingsWithFaultyBatchSize(final int batchSize) {
+		// Arrange
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(MessagingSettingsRequest.MessagingSettingValueRequest.builder()
+				.withKey("department_name")
+				.withValue("IT Department")
+				.withType("STRING")
+				.build()))
+			.build();
+
+		// Act
+		final var response = webTestClient.post()
+			.uri("/{municipalityId}/batch", "2281")
+			.contentType(APPLICATION_JSON)
+			.bodyValue(Collections.nCopies(batchSize, request))
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult().getResponseBody();
+
+		// Assert
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations()).hasSize(1)
+			.extracting(Violation::field)
+			.containsExactly("createMessagingSettings.requests");
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
+	@Test
+	void createMessagingSettingsWithEmptyValues() {
+		// Arrange
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of())
+			.build();
+
+		// Act & Assert
+		webTestClient.post()
+			.uri("/{municipalityId}/batch", "2281")
+			.contentType(APPLICATION_JSON)
+			.bodyValue(List.of(request))
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
+	@Test
+	void updateMessagingSettingsWithoutFilter() {
+		// Arrange
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(MessagingSettingsRequest.MessagingSettingValueRequest.builder()
+				.withKey("sms_sender")
+				.withValue("SUNDSVALL")
+				.withType("STRING")
+				.build()))
+			.build();
+
+		// Act
+		final var response = webTestClient.patch()
+			.uri("/{municipalityId}", "2281")
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isBadRequest()
+			.expectBody(ConstraintViolationProblem.class)
+			.returnResult().getResponseBody();
+
+		// Assert
+		assertThat(response).isNotNull();
+		assertThat(response.getViolations()).hasSize(1)
+			.extracting(Violation::field)
+			.containsExactly("updateMessagingSettings.filter");
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
 	@Test
 	void getMessagingSettingByIdNotFound() {
 		// Arrange
@@ -366,6 +498,56 @@ class MessagingSettingsResourceFailureTest {
 		verifyNoInteractions(messagingSettingsServiceMock);
 	}
 
+	@Test
+	void patchMessagingSettingWithInvalidUuid() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var invalidId = "not-a-uuid";
+
+		// Act & Assert
+		webTestClient.patch()
+			.uri("/{municipalityId}/{id}", municipalityId, invalidId)
+			.contentType(MediaType.parseMediaType(APPLICATION_JSON_PATCH_VALUE))
+			.bodyValue("[{\"op\": \"remove\", \"path\": \"/key\"}]")
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
+	@Test
+	void mergePatchMessagingSettingWithInvalidMunicipalityId() {
+		// Arrange
+		final var invalidMunicipalityId = "invalid";
+		final var id = "123e4567-e89b-12d3-a456-426614174000";
+
+		// Act & Assert
+		webTestClient.patch()
+			.uri("/{municipalityId}/{id}", invalidMunicipalityId, id)
+			.contentType(MediaType.parseMediaType(APPLICATION_MERGE_PATCH_VALUE))
+			.bodyValue("{\"key\": null}")
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
+	@Test
+	void mergePatchMessagingSettingWithMissingRequestBody() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var id = "123e4567-e89b-12d3-a456-426614174000";
+
+		// Act & Assert
+		webTestClient.patch()
+			.uri("/{municipalityId}/{id}", municipalityId, id)
+			.contentType(MediaType.parseMediaType(APPLICATION_MERGE_PATCH_VALUE))
+			.exchange()
+			.expectStatus().isBadRequest();
+
+		verifyNoInteractions(messagingSettingsServiceMock);
+	}
+
 	@Test
 	void deleteMessagingSettingNotFound() {
 		// Arrange
@@ -3,6 +3,7 @@ package se.sundsvall.messagingsettings.api;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,14 +16,19 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.context.request.RequestContextHolder;
 import se.sundsvall.dept44.support.Identifier;
 import se.sundsvall.messagingsettings.Application;
+import se.sundsvall.messagingsettings.api.model.BulkUpdateResponse;
 import se.sundsvall.messagingsettings.api.model.MessagingSettings;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest;
 import se.sundsvall.messagingsettings.service.MessagingSettingsService;
+import se.sundsvall.messagingsettings.service.model.MessagingSettingsPage;
+import tools.jackson.databind.JsonNode;
 
 import static java.util.Optional.ofNullable;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -33,6 +39,11 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+import static se.sundsvall.messagingsettings.api.MessagingSettingsResource.APPLICATION_JSON_PATCH_VALUE;
+import static se.sundsvall.messagingsettings.api.MessagingSettingsResource.APPLICATION_MERGE_PATCH_VALUE;
+import static se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration.STALE_DATA_ATTRIBUTE;
 
 @SpringBootTest(classes = Application.class, webEnvironment = RANDOM_PORT)
 @AutoConfigureWebTestClient
@@ -40,12 +51,18 @@ import static org.springframework.http.MediaType.APPLICATION_JSON;
 @ActiveProfiles("junit")
 class MessagingSettingsResourceTest {
 
+	private static final MediaType APPLICATION_JSON_PATCH = MediaType.parseMediaType(APPLICATION_JSON_PATCH_VALUE);
+	private static final MediaType APPLICATION_MERGE_PATCH = MediaType.parseMediaType(APPLICATION_MERGE_PATCH_VALUE);
+
 	@MockitoBean
 	private MessagingSettingsService messagingSettingsServiceMock;
 
 	@Captor
 	private ArgumentCaptor<Identifier> identifierCaptor;
 
+	@Captor
+	private ArgumentCaptor<JsonNode> patchCaptor;
+
 	@Autowired
 	private WebTestClient webTestClient;
 
@@ -78,6 +95,76 @@ class MessagingSettingsResourceTest {
 		verify(messagingSettingsServiceMock).fetchMessagingSettings(eq(municipalityId), any());
 	}
 
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"values.key: 'namespace' and values.value: 'NS1'"
+	})
+	@NullAndEmptySource
+	void exportMessagingSettings(final String filter) {
+		final var municipalityId = "2281";
+		when(messagingSettingsServiceMock.streamMessagingSettings(eq(municipalityId), any())).thenReturn(Stream.of(
+			MessagingSettings.builder().withId("id-1").build(),
+			MessagingSettings.builder().withId("id-2").build()));
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/export")
+				.queryParamIfPresent("filter", ofNullable(filter))
+				.build(Map.of("municipalityId", municipalityId)))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().contentType(APPLICATION_NDJSON)
+			.expectBody(String.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.lines().toList()).hasSize(2).satisfiesExactly(
+			line -> assertThat(line).startsWith("{").contains("\"id\":\"id-1\""),
+			line -> assertThat(line).startsWith("{").contains("\"id\":\"id-2\""));
+		verify(messagingSettingsServiceMock).streamMessagingSettings(eq(municipalityId), any());
+	}
+
+	@Test
+	void fetchMessagingSettingsPage() {
+		final var municipalityId = "2281";
+		final var match = MessagingSettings.builder().build();
+
+		when(messagingSettingsServiceMock.fetchMessagingSettingsPage(eq(municipalityId), any(), eq(10), eq("cursor"))).thenReturn(new MessagingSettingsPage(List.of(match), "nextCursor"));
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}")
+				.queryParam("limit", 10)
+				.queryParam("cursor", "cursor")
+				.build(Map.of("municipalityId", "2281")))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().valueEquals("x-next-cursor", "nextCursor")
+			.expectBodyList(MessagingSettings.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).hasSize(1).containsExactly(match);
+		verify(messagingSettingsServiceMock).fetchMessagingSettingsPage(eq(municipalityId), any(), eq(10), eq("cursor"));
+	}
+
+	@Test
+	void fetchMessagingSettingsLastPageWithDefaultLimit() {
+		final var municipalityId = "2281";
+
+		when(messagingSettingsServiceMock.fetchMessagingSettingsPage(eq(municipalityId), any(), eq(100), eq("cursor"))).thenReturn(new MessagingSettingsPage(List.of(), null));
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}")
+				.queryParam("cursor", "cursor")
+				.build(Map.of("municipalityId", "2281")))
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().doesNotExist("x-next-cursor")
+			.expectBodyList(MessagingSettings.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isEmpty();
+		verify(messagingSettingsServiceMock).fetchMessagingSettingsPage(eq(municipalityId), any(), eq(100), eq("cursor"));
+	}
+
 	@Test
 	void getMessagingSettingsForUser() {
 		final var municipalityId = "2281";
@@ -91,6 +178,7 @@ class MessagingSettingsResourceTest {
 			.header("x-sent-by", "joe01doe; type=adAccount")
 			.exchange()
 			.expectStatus().isOk()
+			.expectHeader().doesNotExist("x-stale-data")
 			.expectBodyList(MessagingSettings.class)
 			.returnResult().getResponseBody();
 
@@ -101,6 +189,31 @@ class MessagingSettingsResourceTest {
 		assertThat(identifierCaptor.getValue().getType()).isEqualTo(Identifier.Type.AD_ACCOUNT);
 	}
 
+	@Test
+	void getMessagingSettingsForUserFromStaleData() {
+		final var municipalityId = "2281";
+		final var match = MessagingSettings.builder().build();
+
+		when(messagingSettingsServiceMock.fetchMessagingSettingsForUser(eq(municipalityId), any(), any())).thenAnswer(_ -> {
+			RequestContextHolder.currentRequestAttributes().setAttribute(STALE_DATA_ATTRIBUTE, true, SCOPE_REQUEST);
+			return List.of(match);
+		});
+
+		final var response = webTestClient.get()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}/user")
+				.build(Map.of("municipalityId", "2281")))
+			.header("x-sent-by", "joe01doe; type=adAccount")
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().valueEquals("x-stale-data", "true")
+			.expectBodyList(MessagingSettings.class)
+			.returnResult().getResponseBody();
+
+		verify(messagingSettingsServiceMock).fetchMessagingSettingsForUser(eq(municipalityId), any(), any());
+
+		assertThat(response).hasSize(1).containsExactly(match);
+	}
+
 	@Test
 	void createMessagingSetting() {
 		// Arrange
@@ -142,6 +255,79 @@ class MessagingSettingsResourceTest {
 		verify(messagingSettingsServiceMock).createMessagingSetting(eq(municipalityId), any(MessagingSettingsRequest.class));
 	}
 
+	@Test
+	void createMessagingSettings() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var ids = List.of("b82bd8ac-1507-4d9a-958d-369261eecc15", "b82bd8ac-1507-4d9a-958d-369261eecc16");
+		final var requests = List.of(
+			MessagingSettingsRequest.builder()
+				.withValues(List.of(
+					MessagingSettingsRequest.MessagingSettingValueRequest.builder()
+						.withKey("department_name")
+						.withValue("IT Department")
+						.withType("STRING")
+						.build()))
+				.build(),
+			MessagingSettingsRequest.builder()
+				.withValues(List.of(
+					MessagingSettingsRequest.MessagingSettingValueRequest.builder()
+						.withKey("department_name")
+						.withValue("HR Department")
+						.withType("STRING")
+						.build()))
+				.build());
+
+		when(messagingSettingsServiceMock.createMessagingSettings(municipalityId, requests)).thenReturn(ids);
+
+		// Act
+		final var response = webTestClient.post()
+			.uri("/{municipalityId}/batch", municipalityId)
+			.contentType(APPLICATION_JSON)
+			.bodyValue(requests)
+			.exchange()
+			.expectStatus().isCreated()
+			.expectBodyList(String.class)
+			.returnResult().getResponseBody();
+
+		// Assert
+		assertThat(response).isEqualTo(ids);
+		verify(messagingSettingsServiceMock).createMessagingSettings(municipalityId, requests);
+	}
+
+	@Test
+	void updateMessagingSettings() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(
+				MessagingSettingsRequest.MessagingSettingValueRequest.builder()
+					.withKey("sms_sender")
+					.withValue("SUNDSVALL")
+					.withType("STRING")
+					.build()))
+			.build();
+
+		when(messagingSettingsServiceMock.updateMessagingSettings(eq(municipalityId), any(), eq(request))).thenReturn(42);
+
+		// Act
+		final var response = webTestClient.patch()
+			.uri(uriBuilder -> uriBuilder.path("/{municipalityId}")
+				.queryParam("filter", "values.key: 'namespace' and values.value: 'NS1'")
+				.build(Map.of("municipalityId", municipalityId)))
+			.contentType(APPLICATION_JSON)
+			.bodyValue(request)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(BulkUpdateResponse.class)
+			.returnResult().getResponseBody();
+
+		// Assert
+		assertThat(response).isNotNull();
+		assertThat(response.getAffected()).isEqualTo(42);
+		verify(messagingSettingsServiceMock).updateMessagingSettings(eq(municipalityId), any(), eq(request));
+	}
+
 	@Test
 	void getMessagingSettingById() {
 		// Arrange
@@ -226,6 +412,69 @@ class MessagingSettingsResourceTest {
 		verify(messagingSettingsServiceMock).updateMessagingSetting(eq(municipalityId), eq(id), any(MessagingSettingsRequest.class));
 	}
 
+	@Test
+	void patchMessagingSetting() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var id = "b82bd8ac-1507-4d9a-958d-369261eecc15";
+		final var patch = """
+			[
+				{"op": "test", "path": "/department_name/value", "value": "Old Department"},
+				{"op": "replace", "path": "/department_name/value", "value": "Updated Department"}
+			]
+			""";
+
+		when(messagingSettingsServiceMock.patchMessagingSetting(eq(municipalityId), eq(id), patchCaptor.capture()))
+			.thenReturn(MessagingSettings.builder().withId(id).withMunicipalityId(municipalityId).build());
+
+		// Act & Assert
+		final var response = webTestClient.patch()
+			.uri("/{municipalityId}/{id}", municipalityId, id)
+			.contentType(APPLICATION_JSON_PATCH)
+			.bodyValue(patch)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(MessagingSettings.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getId()).isEqualTo(id);
+		assertThat(patchCaptor.getValue().isArray()).isTrue();
+		assertThat(patchCaptor.getValue().size()).isEqualTo(2);
+
+		verify(messagingSettingsServiceMock).patchMessagingSetting(eq(municipalityId), eq(id), any());
+	}
+
+	@Test
+	void mergePatchMessagingSetting() {
+		// Arrange
+		final var municipalityId = "2281";
+		final var id = "b82bd8ac-1507-4d9a-958d-369261eecc15";
+		final var patch = """
+			{"department_name": {"value": "Updated Department"}, "sms_sender": null}
+			""";
+
+		when(messagingSettingsServiceMock.mergePatchMessagingSetting(eq(municipalityId), eq(id), patchCaptor.capture()))
+			.thenReturn(MessagingSettings.builder().withId(id).withMunicipalityId(municipalityId).build());
+
+		// Act & Assert
+		final var response = webTestClient.patch()
+			.uri("/{municipalityId}/{id}", municipalityId, id)
+			.contentType(APPLICATION_MERGE_PATCH)
+			.bodyValue(patch)
+			.exchange()
+			.expectStatus().isOk()
+			.expectBody(MessagingSettings.class)
+			.returnResult().getResponseBody();
+
+		assertThat(response).isNotNull();
+		assertThat(response.getId()).isEqualTo(id);
+		assertThat(patchCaptor.getValue().get("department_name").get("value").stringValue()).isEqualTo("Updated Department");
+		assertThat(patchCaptor.getValue().get("sms_sender").isNull()).isTrue();
+
+		verify(messagingSettingsServiceMock).mergePatchMessagingSetting(eq(municipalityId), eq(id), any());
+	}
+
 	@Test
 	void deleteMessagingSetting() {
 		// Arrange
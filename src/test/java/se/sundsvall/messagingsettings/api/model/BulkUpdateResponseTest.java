@@ -0,0 +1,43 @@
+package se.sundsvall.messagingsettings.api.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class BulkUpdateResponseTest {
+
+	@Test
+	void testBean() {
+		assertThat(BulkUpdateResponse.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builderAndGetters() {
+		final var affected = 42;
+
+		final var result = BulkUpdateResponse.builder()
+			.withAffected(affected)
+			.build();
+
+		assertThat(result).isInstanceOf(BulkUpdateResponse.class).hasNoNullFieldsOrProperties();
+		assertThat(result.getAffected()).isEqualTo(affected);
+	}
+
+	@Test
+	void builderAndGetters_noValues() {
+		assertThat(BulkUpdateResponse.builder().build()).hasAllNullFieldsOrProperties();
+		assertThat(new BulkUpdateResponse()).hasAllNullFieldsOrProperties();
+	}
+}
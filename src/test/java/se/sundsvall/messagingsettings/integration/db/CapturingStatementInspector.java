@@ -0,0 +1,32 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Captures the statements prepared by Hibernate on the current thread while capturing is started
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+	private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+	static void start() {
+		CAPTURED.set(new ArrayList<>());
+	}
+
+	static List<String> stop() {
+		final var captured = CAPTURED.get();
+		CAPTURED.remove();
+		return captured == null ? List.of() : List.copyOf(captured);
+	}
+
+	@Override
+	public String inspect(final String sql) {
+		final var captured = CAPTURED.get();
+		if (captured != null) {
+			captured.add(sql);
+		}
+		return sql;
+	}
+}
@@ -1,24 +1,47 @@
 package se.sundsvall.messagingsettings.integration.db;
 
 import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.assertj.core.api.InstanceOfAssertFactories;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.mergeValues;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.BOOLEAN;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.NUMERIC;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.isAfter;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=se.sundsvall.messagingsettings.integration.db.CapturingStatementInspector")
 @ActiveProfiles("junit")
 @Sql(scripts = {
 	"/db/scripts/truncate.sql",
@@ -33,6 +56,9 @@ class MessagingSettingRepositoryTest {
 	@Autowired
 	private FilterSpecificationConverter filterSpecificationConverter;
 
+	@Autowired
+	private EntityManager entityManager;
+
 	private static Stream<Arguments> findAllArgumentProvider() {
 		return Stream.of(
 			Arguments.of("Search by namespace [NS1]", "values.key: 'namespace' and values.value: 'NS1'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
@@ -42,7 +68,12 @@ class MessagingSettingRepositoryTest {
 			Arguments.of("Search by municipality [2281]", "municipalityId: 2281", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9", "475dcfd4-21d5-4f1d-9aac-fbf247f889c2")),
 			Arguments.of("Search by department id [404]", "values.key: 'department_id' and values.value: '404'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889c2")),
 			Arguments.of("Search by department name [dept46]", "values.key: 'department_name' and values.value: 'dept46'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
-			Arguments.of("Search by department name [dEPt46] to verify case insensitive matching", "values.key: 'Department_naME' and values.value: 'dEPt46'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b9")));
+			Arguments.of("Search by department name [dEPt46] to verify case insensitive matching", "values.key: 'Department_naME' and values.value: 'dEPt46'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
+			Arguments.of("Search by normalized namespace [ns1]", "values.keyNorm: 'namespace' and values.valueNorm: 'ns1'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
+			Arguments.of("Search by municipality [2281] and normalized department name [dept46]", "municipalityId: 2281 and values.keyNorm: 'department_name' and values.valueNorm: 'dept46'", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
+			Arguments.of("Search by numeric department id greater than [403]", "values.key: 'department_id' and values.numeric > 403", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889c2", "475dcfd4-21d5-4f1d-9aac-fbf247f889c3")),
+			Arguments.of("Search by numeric department id between [400.5] and [402]", "values.key: 'department_id' and values.numeric > 400.5 and values.numeric < 402", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b8")),
+			Arguments.of("Search by numeric organization number to verify numeric rather than string comparison", "values.numeric > 99999999999 and values.numeric < 163000000000", List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8")));
 	}
 
 	@ParameterizedTest(name = "{0}")
@@ -68,4 +99,337 @@ class MessagingSettingRepositoryTest {
 				"475dcfd4-21d5-4f1d-9aac-fbf247f889c1", "475dcfd4-21d5-4f1d-9aac-fbf247f889c2", "475dcfd4-21d5-4f1d-9aac-fbf247f889c3"));
 
 	}
+
+	@Test
+	void generatedValueColumns() throws NoSuchAlgorithmException {
+		final var digest = MessageDigest.getInstance("SHA-256");
+		final var entity = MessagingSettingEntity.builder()
+			.withMunicipalityId("2281")
+			.withValues(new ArrayList<>(List.of(
+				MessagingSettingValueEmbeddable.builder().withKey(" Department_ID ").withValue(" DEPT ").withType(STRING).build(),
+				MessagingSettingValueEmbeddable.builder().withKey("threshold").withValue(" 12.50 ").withType(NUMERIC).build(),
+				MessagingSettingValueEmbeddable.builder().withKey("limit").withValue("n/a").withType(NUMERIC).build(),
+				MessagingSettingValueEmbeddable.builder().withKey("enabled").withValue(" TRUE ").withType(BOOLEAN).build(),
+				MessagingSettingValueEmbeddable.builder().withKey("disabled").withValue("false").withType(BOOLEAN).build(),
+				MessagingSettingValueEmbeddable.builder().withKey("text").withValue("true").withType(STRING).build())))
+			.build();
+		entityManager.persist(entity);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(messagingSettingsRepository.findAll()).flatExtracting(MessagingSettingEntity::getValues).isNotEmpty().allSatisfy(value -> {
+			assertThat(value.getKeyNorm()).isEqualTo(EntityMapper.normalize(value.getKey()));
+			assertThat(value.getValueNorm()).isEqualTo(EntityMapper.normalize(value.getValue()));
+			assertThat(value.getValueHash()).isEqualTo(HexFormat.of().formatHex(digest.digest(value.getValue().getBytes(UTF_8))));
+			assertThat(value.getValueNormHash()).isEqualTo(EntityMapper.hash(EntityMapper.normalize(value.getValue())));
+		});
+		assertThat(messagingSettingsRepository.findById(entity.getId())).get()
+			.extracting(MessagingSettingEntity::getValues, InstanceOfAssertFactories.list(MessagingSettingValueEmbeddable.class))
+			.filteredOn(value -> value.getKeyNorm().matches("threshold|limit|enabled|disabled|text"))
+			.extracting(MessagingSettingValueEmbeddable::getKey, value -> value.getNumeric() == null ? null : value.getNumeric().stripTrailingZeros(), MessagingSettingValueEmbeddable::getBool)
+			.containsExactlyInAnyOrder(
+				tuple("threshold", new BigDecimal("12.5"), null),
+				tuple("limit", null, null),
+				tuple("enabled", null, true),
+				tuple("disabled", null, false),
+				tuple("text", null, null));
+		assertThat(messagingSettingsRepository.findAll(filterSpecificationConverter.convert("values.bool: true")))
+			.extracting(MessagingSettingEntity::getId)
+			.containsExactly(entity.getId());
+	}
+
+	private static Stream<Arguments> findAllByDepartmentIdsArgumentProvider() {
+		return Stream.of(
+			Arguments.of("Department ids [400, 402, 999]", List.of("400", "402", "999"), List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9")),
+			Arguments.of("Department ids [ 400 , 400]", List.of(" 400 ", "400"), List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7")),
+			Arguments.of("Value [NS1] belonging to another key", List.of("NS1"), List.of()));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("findAllByDepartmentIdsArgumentProvider")
+	void findAllByDepartmentIds(final String testDescription, final List<String> departmentIds, final List<String> expectedMatchingIds) {
+		final var result = messagingSettingsRepository.findAll(matchesMunicipalityId("2281").and(matchesDepartmentIds(departmentIds)));
+
+		// Each setting is matched once, and only when key and value belong to the same key/value-pair
+		assertThat(result).extracting(MessagingSettingEntity::getId)
+			.asInstanceOf(InstanceOfAssertFactories.LIST)
+			.isEqualTo(expectedMatchingIds);
+	}
+
+	@Test
+	void findIdsOrderedByCreatedAndId() {
+		final var pages = new ArrayList<List<String>>();
+		Specification<MessagingSettingEntity> position = isAfter(null, null);
+
+		// Walk all settings two at a time, positioning each page after the last setting of the previous page
+		for (var ids = messagingSettingsRepository.findIdsOrderedByCreatedAndId(position, 2); !ids.isEmpty(); ids = messagingSettingsRepository.findIdsOrderedByCreatedAndId(position, 2)) {
+			pages.add(ids);
+			final var last = messagingSettingsRepository.findById(ids.getLast()).orElseThrow();
+			position = isAfter(last.getCreated(), last.getId());
+		}
+
+		assertThat(pages).containsExactly(
+			List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8"),
+			List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b9", "475dcfd4-21d5-4f1d-9aac-fbf247f889c1"),
+			List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889c2", "475dcfd4-21d5-4f1d-9aac-fbf247f889c3"));
+	}
+
+	@Test
+	void findIdsOrderedByCreatedAndIdWithFilterJoiningValues() {
+		// Every setting has several values of type STRING, but each setting is to be returned once
+		final var ids = messagingSettingsRepository.findIdsOrderedByCreatedAndId(filterSpecificationConverter.convert("values.type: 'STRING'"), 3);
+
+		assertThat(ids).containsExactly("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9");
+	}
+
+	@Test
+	void saveAllIsBatched() {
+		final var entities = IntStream.range(0, 20)
+			.mapToObj(i -> MessagingSettingEntity.builder()
+				.withMunicipalityId("2281")
+				.withValues(new ArrayList<>(List.of(
+					MessagingSettingValueEmbeddable.builder().withKey("department_id").withValue(String.valueOf(1000 + i)).withType(NUMERIC).build(),
+					MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("dept" + i).withType(STRING).build())))
+				.build())
+			.toList();
+		CapturingStatementInspector.start();
+
+		final var saved = messagingSettingsRepository.saveAll(entities);
+		entityManager.flush();
+
+		// One statement for the settings and one for their values, each executed as a single batch
+		assertThat(saved).hasSize(20).allSatisfy(entity -> assertThat(entity.getId()).isNotNull());
+		assertThat(CapturingStatementInspector.stop()).hasSize(2);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.findAllAsMessagingSettings(matchesIds(saved.stream().map(MessagingSettingEntity::getId).toList())))
+			.hasSize(20)
+			.allSatisfy(setting -> assertThat(setting.getValues()).hasSize(2));
+	}
+
+	@Test
+	void upsertValues() {
+		final var specification = matchesMunicipalityId("2281").and(filterSpecificationConverter.convert("values.key: 'namespace' and values.value: 'NS1'"));
+		final var values = List.of(
+			MessagingSettingValueEmbeddable.builder().withKey("sms_sender").withValue("SUNDSVALL").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("sms_enabled").withValue("true").withType(BOOLEAN).build());
+		CapturingStatementInspector.start();
+
+		final var affected = messagingSettingsRepository.upsertValues(specification, values);
+
+		// One statement to select the settings, and for the single chunk of settings one to delete replaced values, one per value to insert and one to touch the settings
+		assertThat(affected).isEqualTo(2);
+		assertThat(CapturingStatementInspector.stop()).hasSize(5);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.findAllById(List.of("475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b9"))).hasSize(2).allSatisfy(entity -> {
+			assertThat(entity.getValues()).hasSize(12)
+				.filteredOn(value -> value.getKey().startsWith("sms_"))
+				.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue, MessagingSettingValueEmbeddable::getKeyNorm, MessagingSettingValueEmbeddable::getBool)
+				.containsExactlyInAnyOrder(tuple("sms_sender", "SUNDSVALL", "sms_sender", null), tuple("sms_enabled", "true", "sms_enabled", true));
+			assertThat(entity.getUpdated()).isAfter(entity.getCreated().plusHours(1));
+		});
+		assertThat(messagingSettingsRepository.findById("475dcfd4-21d5-4f1d-9aac-fbf247f889c2")).hasValueSatisfying(entity -> assertThat(entity.getValues())
+			.filteredOn(value -> value.getKey().equals("sms_sender"))
+			.extracting(MessagingSettingValueEmbeddable::getValue)
+			.containsExactly("DEPT48"));
+	}
+
+	@Test
+	void upsertValuesWithoutMatchingSettings() {
+		CapturingStatementInspector.start();
+
+		final var affected = messagingSettingsRepository.upsertValues(matchesMunicipalityId("9999"),
+			List.of(MessagingSettingValueEmbeddable.builder().withKey("sms_sender").withValue("SUNDSVALL").withType(STRING).build()));
+
+		assertThat(affected).isZero();
+		assertThat(CapturingStatementInspector.stop()).hasSize(1);
+	}
+
+	private static Stream<Arguments> updateValuesArgumentProvider() {
+		final var smsSender = MessagingSettingValueEmbeddable.builder().withKey("sms_sender").withValue("SUNDSVALL").withType(STRING).build();
+		final var namespace = MessagingSettingValueEmbeddable.builder().withKey("namespace").withValue("NS9").withType(STRING).build();
+		final var departmentName = MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("dept99").withType(STRING).build();
+		final var unchanged = MessagingSettingValueEmbeddable.builder().withKey("callback_email").withValue("no-reply.1@localhost.local").withType(STRING).build();
+		final var added = MessagingSettingValueEmbeddable.builder().withKey("sms_enabled").withValue("true").withType(BOOLEAN).build();
+
+		// Reading the setting takes two statements, every changed key one more and touching the setting a last one
+		return Stream.of(
+			Arguments.of("No changed key", List.of(unchanged), 11, 2),
+			Arguments.of("One changed key", List.of(smsSender, unchanged), 11, 4),
+			Arguments.of("Three changed keys", List.of(smsSender, namespace, departmentName, unchanged), 11, 6),
+			Arguments.of("One added key", List.of(added), 12, 4),
+			Arguments.of("One key replaced by two values", List.of(namespace, MessagingSettingValueEmbeddable.builder().withKey("namespace").withValue("NS8").withType(STRING).build()), 12, 6));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("updateValuesArgumentProvider")
+	void updateValues(final String testDescription, final List<MessagingSettingValueEmbeddable> values, final int expectedSize, final int expectedStatements) {
+		final var id = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+		CapturingStatementInspector.start();
+
+		final var previous = messagingSettingsRepository.updateValues("2281", id, stored -> mergeValues(stored, values));
+
+		assertThat(previous).hasValueSatisfying(entity -> assertThat(entity.getValues()).hasSize(11));
+		assertThat(CapturingStatementInspector.stop()).hasSize(expectedStatements);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.findById(id)).hasValueSatisfying(entity -> assertThat(entity.getValues())
+			.hasSize(expectedSize)
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue, MessagingSettingValueEmbeddable::getType)
+			.containsAll(values.stream().map(value -> tuple(value.getKey(), value.getValue(), value.getType())).toList()));
+	}
+
+	@Test
+	void updateValuesRemovingKeys() {
+		final var id = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+		CapturingStatementInspector.start();
+
+		final var previous = messagingSettingsRepository.updateValues("2281", id, stored -> stored.stream()
+			.filter(value -> !List.of("sms_sender", "namespace").contains(value.getKey()))
+			.toList());
+
+		// Reading the setting takes two statements, every removed key one more and touching the setting a last one
+		assertThat(previous).hasValueSatisfying(entity -> assertThat(entity.getValues()).hasSize(11));
+		assertThat(CapturingStatementInspector.stop()).hasSize(5);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.findById(id)).hasValueSatisfying(entity -> assertThat(entity.getValues())
+			.hasSize(9)
+			.extracting(MessagingSettingValueEmbeddable::getKey)
+			.doesNotContain("sms_sender", "namespace"));
+	}
+
+	@Test
+	void updateValuesOfSettingInOtherMunicipality() {
+		CapturingStatementInspector.start();
+
+		final var previous = messagingSettingsRepository.updateValues("2260", "475dcfd4-21d5-4f1d-9aac-fbf247f889b7", stored -> mergeValues(stored,
+			List.of(MessagingSettingValueEmbeddable.builder().withKey("sms_sender").withValue("SUNDSVALL").withType(STRING).build())));
+
+		assertThat(previous).isEmpty();
+		assertThat(CapturingStatementInspector.stop()).hasSize(1);
+	}
+
+	@Test
+	void deleteByIdAndMunicipalityId() {
+		final var id = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+		CapturingStatementInspector.start();
+
+		assertThat(messagingSettingsRepository.deleteByIdAndMunicipalityId(id, "2260")).isZero();
+		assertThat(messagingSettingsRepository.deleteByIdAndMunicipalityId(id, "2281")).isOne();
+		assertThat(CapturingStatementInspector.stop()).hasSize(2);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.existsByIdAndMunicipalityId(id, "2281")).isFalse();
+		assertThat(entityManager.createNativeQuery("select count(*) from messaging_setting_value where messaging_setting_id = :id", Long.class)
+			.setParameter("id", id)
+			.getSingleResult()).asInstanceOf(InstanceOfAssertFactories.LONG).isZero();
+	}
+
+	@Test
+	void findDepartmentIdsByIdAndMunicipalityId() {
+		final var id = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+
+		assertThat(messagingSettingsRepository.findDepartmentIdsByIdAndMunicipalityId(id, "2281")).containsExactly("400");
+		assertThat(messagingSettingsRepository.findDepartmentIdsByIdAndMunicipalityId(id, "2260")).isEmpty();
+		assertThat(messagingSettingsRepository.findDepartmentIdsByIdAndMunicipalityId("non-existent-id", "2281")).isEmpty();
+	}
+
+	@Test
+	void deleteValuesByIdAndMunicipalityIdAndKey() {
+		final var id = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+		CapturingStatementInspector.start();
+
+		assertThat(messagingSettingsRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, "2260", "sms_sender")).isZero();
+		assertThat(messagingSettingsRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, "2281", "SMS_SENDER")).isZero();
+		assertThat(messagingSettingsRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, "2281", "sms_sender")).isOne();
+		assertThat(CapturingStatementInspector.stop()).hasSize(3);
+
+		entityManager.clear();
+		assertThat(messagingSettingsRepository.findById(id)).hasValueSatisfying(entity -> assertThat(entity.getValues())
+			.hasSize(10)
+			.extracting(MessagingSettingValueEmbeddable::getKey)
+			.doesNotContain("sms_sender"));
+	}
+
+	@Test
+	void streamAll() {
+		entityManager.clear();
+		CapturingStatementInspector.start();
+
+		try (final var result = messagingSettingsRepository.streamAll(Specification.unrestricted(), 2)) {
+			assertThat(result).allSatisfy(entity -> {
+				assertThat(entityManager.contains(entity)).isFalse();
+				assertThat(entity.getValues()).isNotEmpty();
+			}).extracting(MessagingSettingEntity::getId).containsExactly(
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8",
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889b9", "475dcfd4-21d5-4f1d-9aac-fbf247f889c1",
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889c2", "475dcfd4-21d5-4f1d-9aac-fbf247f889c3");
+		}
+
+		// Three statements (ids, settings and values) for each of the three full batches and one for the empty id batch
+		assertThat(CapturingStatementInspector.stop()).hasSize(10);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"values.type: 'STRING'",
+		"values.key: 'department_id' or values.key: 'department_name'"
+	})
+	void streamAllWithFilterJoiningValues(final String filter) {
+		try (final var result = messagingSettingsRepository.streamAll(filterSpecificationConverter.convert(filter), 2)) {
+			assertThat(result).extracting(MessagingSettingEntity::getId).containsExactly(
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889b7", "475dcfd4-21d5-4f1d-9aac-fbf247f889b8",
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889b9", "475dcfd4-21d5-4f1d-9aac-fbf247f889c1",
+				"475dcfd4-21d5-4f1d-9aac-fbf247f889c2", "475dcfd4-21d5-4f1d-9aac-fbf247f889c3");
+		}
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("statementCountArgumentProvider")
+	void findAllAsMessagingSettings(final String testDescription, final Specification<MessagingSettingEntity> specification, final int expectedSize) {
+		final var expected = messagingSettingsRepository.findAll(specification).stream()
+			.map(EntityMapper::toMessagingSettings)
+			.toList();
+		entityManager.clear();
+		CapturingStatementInspector.start();
+
+		final var result = messagingSettingsRepository.findAllAsMessagingSettings(specification);
+
+		// Settings are projected without being loaded as entities, with one statement for the settings and one for the values
+		assertThat(result).hasSize(expectedSize).usingRecursiveComparison().ignoringCollectionOrder().isEqualTo(expected);
+		assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+		assertThat(CapturingStatementInspector.stop()).hasSize(expectedSize == 0 ? 1 : 2);
+	}
+
+	@Test
+	void findAllAsMessagingSettingsWithSort() {
+		final var result = messagingSettingsRepository.findAllAsMessagingSettings(matchesMunicipalityId("2281"), Sort.by(Sort.Direction.DESC, "id"));
+
+		assertThat(result).extracting(MessagingSettings::getId).containsExactly(
+			"475dcfd4-21d5-4f1d-9aac-fbf247f889c2",
+			"475dcfd4-21d5-4f1d-9aac-fbf247f889b9",
+			"475dcfd4-21d5-4f1d-9aac-fbf247f889b7");
+	}
+
+	private static Stream<Arguments> statementCountArgumentProvider() {
+		return Stream.of(
+			Arguments.of("No matching settings", matchesMunicipalityId("9999"), 0),
+			Arguments.of("Settings in municipality [2281]", matchesMunicipalityId("2281"), 3),
+			Arguments.of("All settings", Specification.<MessagingSettingEntity>unrestricted(), 6));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("statementCountArgumentProvider")
+	void findAllUsesConstantNumberOfStatements(final String testDescription, final Specification<MessagingSettingEntity> specification, final int expectedSize) {
+		entityManager.clear();
+		CapturingStatementInspector.start();
+
+		final var result = messagingSettingsRepository.findAll(specification);
+
+		// One statement for the settings and, when there are any, one for the values of all settings
+		assertThat(result).hasSize(expectedSize).allSatisfy(entity -> assertThat(entity.getValues()).isNotEmpty());
+		assertThat(CapturingStatementInspector.stop()).hasSize(expectedSize == 0 ? 1 : 2);
+	}
 }
@@ -0,0 +1,34 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql"
+})
+class MessagingSettingVersionRepositoryTest {
+
+	@Autowired
+	private MessagingSettingVersionRepository messagingSettingVersionRepository;
+
+	@Test
+	void incrementVersion() {
+		messagingSettingVersionRepository.incrementVersion("2281");
+		messagingSettingVersionRepository.incrementVersion("2281");
+		messagingSettingVersionRepository.incrementVersion("2260");
+
+		assertThat(messagingSettingVersionRepository.findById("2281")).get()
+			.satisfies(version -> assertThat(version.getUpdated()).isNotNull())
+			.extracting(MessagingSettingVersionEntity::getVersion).isEqualTo(2L);
+		assertThat(messagingSettingVersionRepository.findById("2260")).get()
+			.extracting(MessagingSettingVersionEntity::getVersion).isEqualTo(1L);
+	}
+}
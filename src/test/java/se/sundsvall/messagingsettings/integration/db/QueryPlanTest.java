@@ -0,0 +1,138 @@
+package se.sundsvall.messagingsettings.integration.db;
+
+import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import java.sql.PreparedStatement;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.AFTER_TEST_CLASS;
+import static org.springframework.test.context.jdbc.Sql.ExecutionPhase.BEFORE_TEST_CLASS;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.isAfter;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+
+/**
+ * Verifies that the queries generated for the specifications, and for representative filter expressions, are executed
+ * through the expected indexes and within their budget of statements. Criteria values are rendered inline, so that the
+ * captured statements can be explained as they are, apart from limits which are always bound as parameters.
+ */
+@SpringBootTest(properties = {
+	"spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+	"spring.jpa.properties.hibernate.session_factory.statement_inspector=se.sundsvall.messagingsettings.integration.db.CapturingStatementInspector"
+})
+@ActiveProfiles("junit")
+@Sql(scripts = {
+	"/db/scripts/truncate.sql",
+	"/db/scripts/testdata.sql",
+	"/db/scripts/queryplan-testdata.sql"
+}, executionPhase = BEFORE_TEST_CLASS)
+@Sql(scripts = "/db/scripts/truncate.sql", executionPhase = AFTER_TEST_CLASS)
+class QueryPlanTest {
+
+	private static final String INDEX_PRIMARY = "PRIMARY";
+	private static final String INDEX_MUNICIPALITY_ID_CREATED_ID = "idx_messaging_setting_municipality_id_created_id";
+	private static final String INDEX_MESSAGING_SETTING_ID_KEY = "idx_messaging_setting_value_messaging_setting_id_key";
+	private static final String INDEX_KEY_NORM_VALUE_NORM = "idx_messaging_setting_value_key_norm_value_norm";
+	private static final String INDEX_KEY_NORM_VALUE_NORM_HASH = "idx_messaging_setting_value_key_norm_value_norm_hash";
+	private static final String INDEX_VALUE_NUMERIC = "idx_messaging_setting_value_value_numeric";
+	private static final int LIMIT = 100;
+
+	@Autowired
+	private MessagingSettingRepository messagingSettingRepository;
+
+	@Autowired
+	private FilterSpecificationConverter filterSpecificationConverter;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private static Stream<Arguments> queryArgumentProvider() {
+		return Stream.of(
+			Arguments.of("Settings of municipality",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId("1001")),
+				List.of(INDEX_MUNICIPALITY_ID_CREATED_ID, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Settings of departments within municipality",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId("1001").and(matchesDepartmentIds(List.of("10001", "10021")))),
+				List.of(INDEX_KEY_NORM_VALUE_NORM_HASH, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Settings of departments",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(matchesDepartmentIds(List.of("10001", "10002", "10003"))),
+				List.of(INDEX_KEY_NORM_VALUE_NORM_HASH, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Setting by id within municipality",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(matchesMunicipalityId("1001").and(matchesIds(List.of("00000000-0000-4000-8000-000000000001")))),
+				List.of(INDEX_PRIMARY, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Page of settings positioned by keyset",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findIdsOrderedByCreatedAndId(
+					matchesMunicipalityId("1001").and(isAfter(OffsetDateTime.parse("2025-01-01T10:00:00Z"), "00000000-0000-4000-8000-000000000601")), LIMIT + 1),
+				List.of(INDEX_MUNICIPALITY_ID_CREATED_ID), 1),
+			Arguments.of("Stream of settings of municipality",
+				(Consumer<QueryPlanTest>) test -> {
+					try (final var settings = test.messagingSettingRepository.streamAll(matchesMunicipalityId("1001"), 500)) {
+						settings.forEach(_ -> {});
+					}
+				},
+				List.of(INDEX_MUNICIPALITY_ID_CREATED_ID, INDEX_PRIMARY, INDEX_MESSAGING_SETTING_ID_KEY), 3),
+			Arguments.of("Filter on namespace within municipality",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(
+					matchesMunicipalityId("1001").and(test.filterSpecificationConverter.convert("values.key: 'namespace' and values.value: 'NS1'"))),
+				List.of(INDEX_MUNICIPALITY_ID_CREATED_ID, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Filter on normalized namespace",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(
+					test.filterSpecificationConverter.convert("values.keyNorm: 'namespace' and values.valueNorm: 'ns1'")),
+				List.of(INDEX_KEY_NORM_VALUE_NORM, INDEX_MESSAGING_SETTING_ID_KEY), 2),
+			Arguments.of("Filter on numeric value range",
+				(Consumer<QueryPlanTest>) test -> test.messagingSettingRepository.findAllAsMessagingSettings(test.filterSpecificationConverter.convert("values.numeric > 11990")),
+				List.of(INDEX_VALUE_NUMERIC, INDEX_MESSAGING_SETTING_ID_KEY), 2));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("queryArgumentProvider")
+	void queryPlan(final String testDescription, final Consumer<QueryPlanTest> query, final List<String> expectedIndexes, final int statementBudget) {
+		CapturingStatementInspector.start();
+		final List<String> statements;
+		try {
+			query.accept(this);
+		} finally {
+			statements = CapturingStatementInspector.stop();
+		}
+
+		final var plan = statements.stream()
+			.flatMap(statement -> explain(statement).stream())
+			.toList();
+
+		assertThat(statements).isNotEmpty().hasSizeLessThanOrEqualTo(statementBudget);
+		assertThat(plan).extracting(row -> row.get("key")).containsAll(expectedIndexes);
+		assertThat(plan).as("Full scans in %s", statements).noneMatch(row -> "ALL".equals(row.get("type")));
+	}
+
+	private List<Map<String, Object>> explain(final String statement) {
+		return jdbcTemplate.query((PreparedStatementCreator) connection -> {
+			final PreparedStatement preparedStatement = connection.prepareStatement("explain " + statement);
+			// Limits are the only values that are not rendered inline
+			for (var i = 1; i <= preparedStatement.getParameterMetaData().getParameterCount(); i++) {
+				preparedStatement.setInt(i, LIMIT + 1);
+			}
+			return preparedStatement;
+		}, (resultSet, _) -> {
+			final var row = new HashMap<String, Object>();
+			for (var i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+				row.put(resultSet.getMetaData().getColumnLabel(i), resultSet.getObject(i));
+			}
+			return row;
+		});
+	}
+}
@@ -0,0 +1,51 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.messagingsettings.integration.db.configuration.ReadWriteRoutingDataSource.Route.PRIMARY;
+import static se.sundsvall.messagingsettings.integration.db.configuration.ReadWriteRoutingDataSource.Route.REPLICA;
+
+class DataSourceRoutingConfigurationTest {
+
+	@Test
+	void dataSource() throws Exception {
+		final var dataSourceProperties = new DataSourceProperties();
+		dataSourceProperties.setUrl("jdbc:mariadb://primary:3306/messaging");
+		dataSourceProperties.setUsername("user");
+		dataSourceProperties.setPassword("secret");
+		dataSourceProperties.afterPropertiesSet();
+		final var replicaProperties = new ReplicaProperties("jdbc:mariadb://replica:3306/messaging", null, "replica-secret", Duration.ofSeconds(5));
+		final var environment = new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+
+		final var dataSource = new DataSourceRoutingConfiguration().dataSource(dataSourceProperties, replicaProperties, environment, new SimpleMeterRegistry());
+
+		assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+		final var routingDataSource = (ReadWriteRoutingDataSource) ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource();
+		assertThat(routingDataSource).isNotNull();
+
+		final var primary = (HikariDataSource) routingDataSource.getResolvedDataSources().get(PRIMARY);
+		assertThat(primary.getPoolName()).isEqualTo("primary");
+		assertThat(primary.getJdbcUrl()).isEqualTo("jdbc:mariadb://primary:3306/messaging");
+		assertThat(primary.getUsername()).isEqualTo("user");
+		assertThat(primary.getPassword()).isEqualTo("secret");
+		assertThat(primary.getMaximumPoolSize()).isEqualTo(7);
+		assertThat(primary.isReadOnly()).isFalse();
+		assertThat(primary.getMetricsTrackerFactory()).isNotNull();
+
+		final var replica = (HikariDataSource) routingDataSource.getResolvedDataSources().get(REPLICA);
+		assertThat(replica.getPoolName()).isEqualTo("replica");
+		assertThat(replica.getJdbcUrl()).isEqualTo("jdbc:mariadb://replica:3306/messaging");
+		assertThat(replica.getUsername()).isEqualTo("user");
+		assertThat(replica.getPassword()).isEqualTo("replica-secret");
+		assertThat(replica.getMaximumPoolSize()).isEqualTo(7);
+		assertThat(replica.isReadOnly()).isTrue();
+		assertThat(replica.getMetricsTrackerFactory()).isNotNull();
+	}
+}
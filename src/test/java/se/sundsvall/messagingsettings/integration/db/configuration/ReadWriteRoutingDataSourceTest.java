@@ -0,0 +1,102 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.messagingsettings.integration.db.configuration.ReadWriteRoutingDataSource.METRIC_ROUTES;
+import static se.sundsvall.messagingsettings.integration.db.configuration.ReadWriteRoutingDataSource.Route.PRIMARY;
+import static se.sundsvall.messagingsettings.integration.db.configuration.ReadWriteRoutingDataSource.Route.REPLICA;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+	@Mock
+	private DataSource mockPrimary;
+
+	@Mock
+	private DataSource mockReplica;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		TransactionSynchronizationManager.clear();
+	}
+
+	@Test
+	void routesToPrimaryOutsideTransaction() {
+		final var dataSource = new ReadWriteRoutingDataSource(mockPrimary, mockReplica, Duration.ofHours(1), meterRegistry);
+
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+		assertThat(dataSource.getResolvedDataSources()).containsEntry(PRIMARY, mockPrimary).containsEntry(REPLICA, mockReplica);
+		assertThat(dataSource.getResolvedDefaultDataSource()).isSameAs(mockPrimary);
+	}
+
+	@Test
+	void routesReadOnlyTransactionToReplica() {
+		final var dataSource = new ReadWriteRoutingDataSource(mockPrimary, mockReplica, Duration.ofHours(1), meterRegistry);
+
+		beginTransaction(true);
+
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(REPLICA);
+		assertThat(meterRegistry.get(METRIC_ROUTES).tag("route", "replica").counter().count()).isOne();
+		assertThat(meterRegistry.get(METRIC_ROUTES).tag("route", "primary").counter().count()).isZero();
+	}
+
+	@Test
+	void routesReadOnlyTransactionToPrimaryWithinReadYourWritesWindow() {
+		final var dataSource = new ReadWriteRoutingDataSource(mockPrimary, mockReplica, Duration.ofHours(1), meterRegistry);
+
+		beginTransaction(false);
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+		assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+		completeTransaction();
+
+		beginTransaction(true);
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+		assertThat(meterRegistry.get(METRIC_ROUTES).tag("route", "primary").counter().count()).isEqualTo(2);
+	}
+
+	@Test
+	void routesReadOnlyTransactionToReplicaAfterReadYourWritesWindow() {
+		final var dataSource = new ReadWriteRoutingDataSource(mockPrimary, mockReplica, Duration.ZERO, meterRegistry);
+
+		beginTransaction(false);
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(PRIMARY);
+		completeTransaction();
+
+		beginTransaction(true);
+		assertThat(dataSource.determineCurrentLookupKey()).isEqualTo(REPLICA);
+	}
+
+	private static void beginTransaction(final boolean readOnly) {
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+	}
+
+	private static void completeTransaction() {
+		TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+		TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.clear();
+	}
+}
@@ -0,0 +1,26 @@
+package se.sundsvall.messagingsettings.integration.db.configuration;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.messagingsettings.Application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class ReplicaPropertiesTest {
+
+	@Autowired
+	private ReplicaProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.url()).isNull();
+		assertThat(properties.username()).isNull();
+		assertThat(properties.password()).isNull();
+		assertThat(properties.readYourWritesWindow()).isEqualTo(Duration.ofSeconds(2));
+	}
+}
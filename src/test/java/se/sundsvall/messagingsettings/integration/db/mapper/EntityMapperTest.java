@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.List;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
 import se.sundsvall.messagingsettings.api.model.MessagingSettings;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest.MessagingSettingValueRequest;
@@ -12,6 +14,7 @@ import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntit
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.BOOLEAN;
 import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.NUMERIC;
 import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
@@ -103,6 +106,18 @@ class EntityMapperTest {
 		});
 	}
 
+	@Test
+	void normalize() {
+		assertThat(EntityMapper.normalize(" Dept-44 ")).isEqualTo("dept-44");
+		assertThat(EntityMapper.normalize(null)).isNull();
+	}
+
+	@Test
+	void hash() {
+		assertThat(EntityMapper.hash("dept-44")).isEqualTo("4957f3eb18bbce9d30bc48452f6d275b0d471cc5fe4ebdd584ab04cf07adc2cb");
+		assertThat(EntityMapper.hash(null)).isNull();
+	}
+
 	@Test
 	void toEntityFromCreateRequest() {
 		// Arrange
@@ -169,134 +184,53 @@ class EntityMapperTest {
 	}
 
 	@Test
-	void updateEntityFromUpdateRequest() {
+	void mergeValues() {
 		// Arrange
-		final var id = "test-id";
-		final var municipalityId = "2281";
-		final var departmentKey = "department_name";
-		final var oldDepartmentValue = "Old Department";
-		final var updatedDepartmentValue = "Updated Department";
-		final var departmentType = "STRING";
-		final var newKey = "new_key";
-		final var newValue = "new_value";
-		final var newType = NUMERIC.name();
-		final var type = STRING;
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(municipalityId)
-			.withValues(new ArrayList<>(List.of(
-				MessagingSettingValueEmbeddable.builder()
-					.withKey(departmentKey)
-					.withValue(oldDepartmentValue)
-					.withType(type)
-					.build())))
-			.build();
-
-		final var request = MessagingSettingsRequest.builder()
-			.withValues(List.of(
-				MessagingSettingValueRequest.builder()
-					.withKey(departmentKey)
-					.withValue(updatedDepartmentValue)
-					.withType(departmentType)
-					.build(),
-				MessagingSettingValueRequest.builder()
-					.withKey(newKey)
-					.withValue(newValue)
-					.withType(newType)
-					.build()))
-			.build();
+		final var existingValues = List.of(
+			MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("Old Department").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("namespace").withValue("NS1").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("namespace").withValue("NS2").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("sms_enabled").withValue("true").withType(BOOLEAN).build());
+		final var newValues = List.of(
+			MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("Updated Department").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("namespace").withValue("NS3").withType(STRING).build(),
+			MessagingSettingValueEmbeddable.builder().withKey("new_key").withValue("new_value").withType(NUMERIC).build());
 
 		// Act
-		final var result = EntityMapper.updateEntity(entity, request);
+		final var result = EntityMapper.mergeValues(existingValues, newValues);
 
 		// Assert
-		assertThat(result).isSameAs(entity);
-		assertThat(result.getId()).isEqualTo(id);
-		assertThat(result.getMunicipalityId()).isEqualTo(municipalityId);
-		assertThat(result.getValues()).hasSize(2);
-		assertThat(result.getValues().getFirst().getKey()).isEqualTo(departmentKey);
-		assertThat(result.getValues().getFirst().getValue()).isEqualTo(updatedDepartmentValue);
-		assertThat(result.getValues().getFirst().getType()).isEqualTo(type);
-		assertThat(result.getValues().getLast().getKey()).isEqualTo(newKey);
-		assertThat(result.getValues().getLast().getValue()).isEqualTo(newValue);
-		assertThat(result.getValues().getLast().getType()).isEqualTo(NUMERIC);
+		assertThat(result)
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue, MessagingSettingValueEmbeddable::getType)
+			.containsExactly(
+				tuple("sms_enabled", "true", BOOLEAN),
+				tuple("department_name", "Updated Department", STRING),
+				tuple("namespace", "NS3", STRING),
+				tuple("new_key", "new_value", NUMERIC));
 	}
 
 	@Test
-	void updateEntityWithNullEntity() {
+	void mergeValuesWithNullExistingValues() {
 		// Arrange
-		final var request = MessagingSettingsRequest.builder()
-			.withValues(List.of())
-			.build();
+		final var newValues = List.of(MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("Department").withType(STRING).build());
 
 		// Act
-		final var result = EntityMapper.updateEntity(null, request);
+		final var result = EntityMapper.mergeValues(null, newValues);
 
 		// Assert
-		assertThat(result).isNull();
+		assertThat(result).containsExactlyElementsOf(newValues);
 	}
 
-	@Test
-	void updateEntityWithNullRequest() {
+	@ParameterizedTest
+	@NullAndEmptySource
+	void mergeValuesWithoutNewValues(final List<MessagingSettingValueEmbeddable> newValues) {
 		// Arrange
-		final var id = "test-id";
-		final var municipalityId = "2281";
-		final var departmentKey = "department_name";
-		final var departmentName = "Old Department";
-		final var type = STRING;
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(municipalityId)
-			.withValues(new ArrayList<>(List.of(
-				MessagingSettingValueEmbeddable.builder()
-					.withKey(departmentKey)
-					.withValue(departmentName)
-					.withType(type)
-					.build())))
-			.build();
-
-		// Act
-		final var result = EntityMapper.updateEntity(entity, null);
-
-		// Assert
-		assertThat(result).isSameAs(entity);
-		assertThat(result.getValues()).hasSize(1);
-		assertThat(result.getValues().getFirst().getKey()).isEqualTo(departmentKey);
-		assertThat(result.getValues().getFirst().getValue()).isEqualTo(departmentName);
-		assertThat(result.getValues().getFirst().getType()).isEqualTo(type);
-	}
-
-	@Test
-	void updateEntityWithEmptyValues() {
-		// Arrange
-		final var id = "test-id";
-		final var municipalityId = "2281";
-		final var departmentKey = "department_name";
-		final var departmentName = "Old Department";
-		final var type = STRING;
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(municipalityId)
-			.withValues(new ArrayList<>(List.of(
-				MessagingSettingValueEmbeddable.builder()
-					.withKey(departmentKey)
-					.withValue(departmentName)
-					.withType(type)
-					.build())))
-			.build();
-
-		final var request = MessagingSettingsRequest.builder()
-			.withValues(List.of())
-			.build();
+		final var existingValues = List.of(MessagingSettingValueEmbeddable.builder().withKey("department_name").withValue("Department").withType(STRING).build());
 
 		// Act
-		final var result = EntityMapper.updateEntity(entity, request);
+		final var result = EntityMapper.mergeValues(existingValues, newValues);
 
 		// Assert
-		assertThat(result).isSameAs(entity);
-		assertThat(result.getValues()).hasSize(1);
-		assertThat(result.getValues().getFirst().getKey()).isEqualTo(departmentKey);
-		assertThat(result.getValues().getFirst().getValue()).isEqualTo(departmentName);
-		assertThat(result.getValues().getFirst().getType()).isEqualTo(type);
+		assertThat(result).containsExactlyElementsOf(existingValues);
 	}
 }
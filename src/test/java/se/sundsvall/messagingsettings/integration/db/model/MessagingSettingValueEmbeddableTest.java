@@ -1,5 +1,6 @@
 package se.sundsvall.messagingsettings.integration.db.model;
 
+import java.math.BigDecimal;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Test;
 import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
@@ -29,17 +30,35 @@ class MessagingSettingValueEmbeddableTest {
 		final var key = "key";
 		final var type = ValueType.BOOLEAN;
 		final var value = "value";
+		final var keyNorm = "keynorm";
+		final var valueNorm = "valuenorm";
+		final var valueHash = "valuehash";
+		final var valueNormHash = "valuenormhash";
+		final var numeric = BigDecimal.TEN;
+		final var bool = true;
 
 		final var entity = MessagingSettingValueEmbeddable.builder()
 			.withKey(key)
 			.withType(type)
 			.withValue(value)
+			.withKeyNorm(keyNorm)
+			.withValueNorm(valueNorm)
+			.withValueHash(valueHash)
+			.withValueNormHash(valueNormHash)
+			.withNumeric(numeric)
+			.withBool(bool)
 			.build();
 
 		assertThat(entity).hasNoNullFieldsOrProperties();
 		assertThat(entity.getKey()).isEqualTo(key);
 		assertThat(entity.getType()).isEqualByComparingTo(type);
 		assertThat(entity.getValue()).isEqualTo(value);
+		assertThat(entity.getKeyNorm()).isEqualTo(keyNorm);
+		assertThat(entity.getValueNorm()).isEqualTo(valueNorm);
+		assertThat(entity.getValueHash()).isEqualTo(valueHash);
+		assertThat(entity.getValueNormHash()).isEqualTo(valueNormHash);
+		assertThat(entity.getNumeric()).isEqualTo(numeric);
+		assertThat(entity.getBool()).isEqualTo(bool);
 	}
 
 	@Test
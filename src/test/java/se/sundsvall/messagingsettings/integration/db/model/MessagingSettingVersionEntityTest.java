@@ -0,0 +1,58 @@
+package se.sundsvall.messagingsettings.integration.db.model;
+
+import java.time.OffsetDateTime;
+import java.util.Random;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanToString;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+class MessagingSettingVersionEntityTest {
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> OffsetDateTime.now().plusDays(new Random().nextInt()), OffsetDateTime.class);
+	}
+
+	@Test
+	void testBean() {
+		MatcherAssert.assertThat(MessagingSettingVersionEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals(),
+			hasValidBeanToString()));
+	}
+
+	@Test
+	void builderAndGetters() {
+		final var municipalityId = "2281";
+		final var version = 42L;
+		final var updated = OffsetDateTime.now();
+
+		final var entity = MessagingSettingVersionEntity.builder()
+			.withMunicipalityId(municipalityId)
+			.withVersion(version)
+			.withUpdated(updated)
+			.build();
+
+		assertThat(entity).hasNoNullFieldsOrProperties();
+		assertThat(entity.getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(entity.getVersion()).isEqualTo(version);
+		assertThat(entity.getUpdated()).isEqualTo(updated);
+	}
+
+	@Test
+	void builderAndGetters_noValues() {
+		assertThat(new MessagingSettingVersionEntity()).hasAllNullFieldsOrProperties();
+		assertThat(MessagingSettingVersionEntity.builder().build()).hasAllNullFieldsOrProperties();
+	}
+}
@@ -1,5 +1,7 @@
 package se.sundsvall.messagingsettings.integration.db.specification;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.jpa.domain.Specification;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
@@ -30,21 +32,57 @@ class MessagingSettingSpecificationTest {
 	}
 
 	@Test
-	void matchesDepartmentIdWithValue() {
+	void isAfterWithValues() {
+		// Act
+		final var specification = MessagingSettingSpecification.isAfter(OffsetDateTime.now(), "id-1");
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void isAfterWithNullValues() {
+		// Act
+		final var specification = MessagingSettingSpecification.isAfter(null, null);
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesIdsWithValue() {
+		// Act
+		final var specification = MessagingSettingSpecification.matchesIds(List.of("id-1", "id-2"));
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesIdsWithNullValue() {
+		// Act
+		final var specification = MessagingSettingSpecification.matchesIds(null);
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesDepartmentIdsWithValues() {
 		// Arrange
-		final var departmentId = "123";
+		final var departmentIds = List.of("123", "456");
 
 		// Act
-		final var specification = MessagingSettingSpecification.matchesDepartmentId(departmentId);
+		final var specification = MessagingSettingSpecification.matchesDepartmentIds(departmentIds);
 
 		// Assert
 		assertThat(specification).isNotNull();
 	}
 
 	@Test
-	void matchesDepartmentIdWithNullValue() {
+	void matchesDepartmentIdsWithNullValue() {
 		// Act
-		final var specification = MessagingSettingSpecification.matchesDepartmentId(null);
+		final var specification = MessagingSettingSpecification.matchesDepartmentIds(null);
 
 		// Assert
 		assertThat(specification).isNotNull();
@@ -54,11 +92,11 @@ class MessagingSettingSpecificationTest {
 	void matchesMunicipalityIdAndDepartmentIdCombined() {
 		// Arrange
 		final var municipalityId = "2281";
-		final var departmentId = "123";
+		final var departmentIds = List.of("123");
 
 		// Act
 		final Specification<MessagingSettingEntity> combinedSpec = MessagingSettingSpecification.matchesMunicipalityId(municipalityId)
-			.and(MessagingSettingSpecification.matchesDepartmentId(departmentId));
+			.and(MessagingSettingSpecification.matchesDepartmentIds(departmentIds));
 
 		// Assert
 		assertThat(combinedSpec).isNotNull();
@@ -71,7 +109,7 @@ class MessagingSettingSpecificationTest {
 
 		// Act
 		final Specification<MessagingSettingEntity> combinedSpec = MessagingSettingSpecification.matchesMunicipalityId(municipalityId)
-			.and(MessagingSettingSpecification.matchesDepartmentId(null));
+			.and(MessagingSettingSpecification.matchesDepartmentIds(null));
 
 		// Assert
 		assertThat(combinedSpec).isNotNull();
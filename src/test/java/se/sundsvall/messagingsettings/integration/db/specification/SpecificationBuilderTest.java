@@ -1,5 +1,7 @@
 package se.sundsvall.messagingsettings.integration.db.specification;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
 
@@ -35,42 +37,81 @@ class SpecificationBuilderTest {
 	}
 
 	@Test
-	void matchesSettingValueKeyIgnoreCaseWithValue() {
-		// Arrange
-		final var value = "testKey";
+	void buildInFilterWithValues() {
+		// Act
+		final var specification = builder.buildInFilter("testAttribute", List.of("value1", "value2"));
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
 
+	@Test
+	void buildInFilterWithNullValues() {
 		// Act
-		final var specification = builder.matchesSettingValueKeyIgnoreCase(value);
+		final var specification = builder.buildInFilter("testAttribute", null);
 
 		// Assert
 		assertThat(specification).isNotNull();
 	}
 
 	@Test
-	void matchesSettingValueKeyIgnoreCaseWithNullValue() {
+	void buildKeysetFilterWithValues() {
 		// Act
-		final var specification = builder.matchesSettingValueKeyIgnoreCase(null);
+		final var specification = builder.buildKeysetFilter("created", OffsetDateTime.now(), "id", "testId");
 
 		// Assert
 		assertThat(specification).isNotNull();
 	}
 
 	@Test
-	void matchesSettingValueValueIgnoreCaseWithValue() {
-		// Arrange
-		final var value = "testValue";
+	void buildKeysetFilterWithNullValue() {
+		// Act
+		final var specification = builder.buildKeysetFilter("created", (OffsetDateTime) null, "id", "testId");
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void buildKeysetFilterWithNullValues() {
+		// Act
+		final var specification = builder.buildKeysetFilter("created", (OffsetDateTime) null, "id", null);
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesSettingValueInIgnoreCaseWithValues() {
+		// Act
+		final var specification = builder.matchesSettingValueInIgnoreCase("testKey", List.of("Value1", " value2 "));
 
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesSettingValueInIgnoreCaseWithValueLongerThanIndexedPrefix() {
 		// Act
-		final var specification = builder.matchesSettingValueValueIgnoreCase(value);
+		final var specification = builder.matchesSettingValueInIgnoreCase("testKey", List.of("x".repeat(300)));
 
 		// Assert
 		assertThat(specification).isNotNull();
 	}
 
 	@Test
-	void matchesSettingValueValueIgnoreCaseWithNullValue() {
+	void matchesSettingValueInIgnoreCaseWithNullKey() {
 		// Act
-		final var specification = builder.matchesSettingValueValueIgnoreCase(null);
+		final var specification = builder.matchesSettingValueInIgnoreCase(null, List.of("Value1"));
+
+		// Assert
+		assertThat(specification).isNotNull();
+	}
+
+	@Test
+	void matchesSettingValueInIgnoreCaseWithNullValues() {
+		// Act
+		final var specification = builder.matchesSettingValueInIgnoreCase("testKey", null);
 
 		// Assert
 		assertThat(specification).isNotNull();
@@ -87,13 +128,9 @@ class SpecificationBuilderTest {
 
 	@Test
 	void combinedSpecificationsWithValues() {
-		// Arrange
-		final var keyValue = "testKey";
-		final var valueValue = "testValue";
-
 		// Act
-		final var combinedSpec = builder.matchesSettingValueKeyIgnoreCase(keyValue)
-			.and(builder.matchesSettingValueValueIgnoreCase(valueValue));
+		final var combinedSpec = builder.matchesSettingValueInIgnoreCase("testKey", List.of("testValue"))
+			.and(builder.matchesSettingValueInIgnoreCase("otherKey", List.of("otherValue")));
 
 		// Assert
 		assertThat(combinedSpec).isNotNull();
@@ -102,8 +139,8 @@ class SpecificationBuilderTest {
 	@Test
 	void combinedSpecificationsWithNullValues() {
 		// Act
-		final var combinedSpec = builder.matchesSettingValueKeyIgnoreCase(null)
-			.and(builder.matchesSettingValueValueIgnoreCase(null));
+		final var combinedSpec = builder.matchesSettingValueInIgnoreCase(null, null)
+			.and(builder.matchesSettingValueInIgnoreCase(null, null));
 
 		// Assert
 		assertThat(combinedSpec).isNotNull();
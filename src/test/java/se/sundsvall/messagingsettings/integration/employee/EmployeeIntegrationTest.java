@@ -1,20 +1,25 @@
 package se.sundsvall.messagingsettings.integration.employee;
 
 import generated.se.sundsvall.employee.PortalPersonData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.messagingsettings.integration.employee.configuration.EmployeeProperties;
 import se.sundsvall.messagingsettings.integration.employee.mapper.EmployeeMapper;
@@ -22,6 +27,7 @@ import se.sundsvall.messagingsettings.service.model.DepartmentInfo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -40,9 +46,17 @@ class EmployeeIntegrationTest {
 	@Mock
 	private EmployeeProperties mockEmployeeProperties;
 
-	@InjectMocks
+	private SimpleMeterRegistry meterRegistry;
+
 	private EmployeeIntegration employeeIntegration;
 
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		when(mockEmployeeProperties.cache()).thenReturn(new EmployeeProperties.Cache(Duration.ofMinutes(10), Duration.ofMinutes(5), 100, Duration.ofHours(1), Duration.ofMinutes(1), 10));
+		employeeIntegration = new EmployeeIntegration(mockEmployeeClient, mockEmployeeProperties, meterRegistry);
+	}
+
 	private static Stream<Arguments> argumentProvider() {
 		return Stream.of(
 			// Two levels, complete data
@@ -132,4 +146,114 @@ class EmployeeIntegrationTest {
 
 		verifyNoInteractions(mockEmployeeClient);
 	}
+
+	@Test
+	void getDepartmentInfos_isCached() {
+		final var portalPersonData = new PortalPersonData();
+		portalPersonData.setFullOrgTree("1|123|org1");
+
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME))
+			.thenReturn(Optional.of(portalPersonData));
+
+		final var first = employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+		final var second = employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+
+		assertThat(first).containsExactly(new DepartmentInfo("1", "123", "org1"));
+		assertThat(second).isSameAs(first);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeIntegration.CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeIntegration.CACHE_NAME).tag("result", "miss").functionCounter().count()).isEqualTo(1);
+
+		verify(mockEmployeeClient).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+		verifyNoMoreInteractions(mockEmployeeClient);
+	}
+
+	@Test
+	void getDepartmentInfos_isCachedPerUser() {
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME)).thenReturn(Optional.empty());
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, "otherUser")).thenReturn(Optional.empty());
+
+		employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+		employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, "otherUser");
+		employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+
+		verify(mockEmployeeClient, times(1)).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+		verify(mockEmployeeClient, times(1)).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, "otherUser");
+		verifyNoMoreInteractions(mockEmployeeClient);
+		assertThat(meterRegistry.get(EmployeeIntegration.METRIC_COALESCED).counter().count()).isZero();
+	}
+
+	@Test
+	void getDepartmentInfos_servesLastKnownWhenEmployeeServiceFails() {
+		final var portalPersonData = new PortalPersonData();
+		portalPersonData.setFullOrgTree("1|123|org1");
+		final var request = new MockHttpServletRequest();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+		// Entries expire immediately from the regular cache but are kept as last known
+		when(mockEmployeeProperties.cache()).thenReturn(new EmployeeProperties.Cache(Duration.ofNanos(1), Duration.ofMinutes(5), 100, Duration.ofHours(1), Duration.ofMinutes(1), 10));
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME))
+			.thenReturn(Optional.of(portalPersonData))
+			.thenThrow(new IllegalStateException("Service unavailable"));
+		employeeIntegration = new EmployeeIntegration(mockEmployeeClient, mockEmployeeProperties, meterRegistry);
+
+		try {
+			final var first = employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+			assertThat(request.getAttribute(EmployeeIntegration.STALE_DATA_ATTRIBUTE)).isNull();
+
+			final var second = employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+
+			assertThat(second).isEqualTo(first).containsExactly(new DepartmentInfo("1", "123", "org1"));
+			assertThat(request.getAttribute(EmployeeIntegration.STALE_DATA_ATTRIBUTE)).isEqualTo(true);
+			assertThat(meterRegistry.get(EmployeeIntegration.METRIC_STALE).counter().count()).isEqualTo(1);
+			verify(mockEmployeeClient, times(2)).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+			verifyNoMoreInteractions(mockEmployeeClient);
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	@Test
+	void getDepartmentInfos_withFailingEmployeeServiceAndNoLastKnown() {
+		final var exception = new IllegalStateException("Service unavailable");
+
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME)).thenThrow(exception);
+
+		assertThatThrownBy(() -> employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).isSameAs(exception);
+
+		assertThat(meterRegistry.get(EmployeeIntegration.METRIC_STALE).counter().count()).isZero();
+		verify(mockEmployeeClient).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+		verifyNoMoreInteractions(mockEmployeeClient);
+	}
+
+	@Test
+	void getDepartmentInfos_withNoEmployeeIsNegativelyCached() {
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME))
+			.thenReturn(Optional.empty());
+
+		assertThat(employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).isEmpty();
+		assertThat(employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).isEmpty();
+
+		assertThat(meterRegistry.get("cache.size").tag("cache", EmployeeIntegration.CACHE_NAME).gauge().value()).isZero();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", EmployeeIntegration.NEGATIVE_CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+		verify(mockEmployeeClient).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+		verifyNoMoreInteractions(mockEmployeeClient);
+	}
+
+	@Test
+	void getDepartmentInfos_withEmptyOrgTreeIsNegativelyCached() {
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, DOMAIN_PERSONAL));
+		when(mockEmployeeClient.getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME))
+			.thenReturn(Optional.of(new PortalPersonData()));
+
+		assertThat(employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).isEmpty();
+		assertThat(employeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).isEmpty();
+
+		verify(mockEmployeeClient).getEmployeeByDomainAndLoginName(MUNICIPALITY_ID, DOMAIN_PERSONAL, LOGIN_NAME);
+		verifyNoMoreInteractions(mockEmployeeClient);
+	}
 }
@@ -0,0 +1,117 @@
+package se.sundsvall.messagingsettings.integration.employee;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+	private Counter coalescedCounter;
+	private SingleFlight<String, String> singleFlight;
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		coalescedCounter = Counter.builder("test.coalesced").register(new SimpleMeterRegistry());
+		singleFlight = new SingleFlight<>(coalescedCounter);
+		executor = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void executeSequentialCalls() {
+		final var invocations = new AtomicInteger();
+
+		assertThat(singleFlight.execute("key", () -> "result-" + invocations.incrementAndGet())).isEqualTo("result-1");
+		assertThat(singleFlight.execute("key", () -> "result-" + invocations.incrementAndGet())).isEqualTo("result-2");
+		assertThat(coalescedCounter.count()).isZero();
+	}
+
+	@Test
+	void executeConcurrentCallsForSameKey() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var invocations = new AtomicInteger();
+
+		final var leader = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+			invocations.incrementAndGet();
+			started.countDown();
+			await(release);
+			return "result";
+		}), executor);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		final var follower = CompletableFuture.supplyAsync(() -> singleFlight.execute("key", () -> {
+			invocations.incrementAndGet();
+			return "other";
+		}), executor);
+		awaitCoalesced(1);
+		release.countDown();
+
+		assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+		assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+		assertThat(invocations).hasValue(1);
+		assertThat(coalescedCounter.count()).isEqualTo(1);
+	}
+
+	@Test
+	void executeConcurrentCallsSharesException() throws Exception {
+		final var started = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+
+		final var leader = CompletableFuture.runAsync(() -> singleFlight.execute("key", () -> {
+			started.countDown();
+			await(release);
+			throw new IllegalStateException("failure");
+		}), executor);
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		final var follower = CompletableFuture.supplyAsync(() -> {
+			try {
+				singleFlight.execute("key", () -> "other");
+				return null;
+			} catch (final IllegalStateException e) {
+				return e;
+			}
+		}, executor);
+		awaitCoalesced(1);
+		release.countDown();
+
+		assertThat(follower.get(5, TimeUnit.SECONDS)).hasMessage("failure");
+		assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+
+		// The failed call is no longer in flight
+		assertThat(singleFlight.execute("key", () -> "result")).isEqualTo("result");
+	}
+
+	private void awaitCoalesced(final int expected) throws InterruptedException {
+		final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (coalescedCounter.count() < expected && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(coalescedCounter.count()).isEqualTo(expected);
+	}
+
+	private static void await(final CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package se.sundsvall.messagingsettings.integration.employee.configuration;
 
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -22,5 +23,11 @@ class EmployeePropertiesTest {
 		assertThat(properties.domains())
 			.containsEntry("2281", "PERSONAL")
 			.containsEntry("2260", "ANGEDOMAIN");
+		assertThat(properties.cache().timeToLive()).isEqualTo(Duration.ofMinutes(10));
+		assertThat(properties.cache().refreshAfter()).isEqualTo(Duration.ofMinutes(5));
+		assertThat(properties.cache().maximumSize()).isEqualTo(100);
+		assertThat(properties.cache().maximumStaleness()).isEqualTo(Duration.ofHours(1));
+		assertThat(properties.cache().negativeTimeToLive()).isEqualTo(Duration.ofSeconds(30));
+		assertThat(properties.cache().negativeMaximumSize()).isEqualTo(50);
 	}
 }
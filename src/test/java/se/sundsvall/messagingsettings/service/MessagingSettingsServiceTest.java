@@ -2,9 +2,13 @@ package se.sundsvall.messagingsettings.service;
 
 import com.turkraft.springfilter.converter.FilterSpecification;
 import com.turkraft.springfilter.converter.FilterSpecificationConverter;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,30 +19,52 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import se.sundsvall.dept44.problem.ThrowableProblem;
 import se.sundsvall.dept44.support.Identifier;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest;
 import se.sundsvall.messagingsettings.api.model.MessagingSettingsRequest.MessagingSettingValueRequest;
 import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
 import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
 import se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration;
+import se.sundsvall.messagingsettings.service.cache.MessagingSettingsSnapshotCache;
+import se.sundsvall.messagingsettings.service.cache.ResolvedSettingsCache;
 import se.sundsvall.messagingsettings.service.model.DepartmentInfo;
+import se.sundsvall.messagingsettings.service.model.KeysetCursor;
+import tools.jackson.databind.json.JsonMapper;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.web.context.request.RequestAttributes.SCOPE_REQUEST;
+import static se.sundsvall.messagingsettings.integration.db.mapper.EntityMapper.toMessagingSettings;
 import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
-import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentId;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesDepartmentIds;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesIds;
 import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.matchesMunicipalityId;
+import static se.sundsvall.messagingsettings.integration.employee.EmployeeIntegration.STALE_DATA_ATTRIBUTE;
 
 @ExtendWith(MockitoExtension.class)
 class MessagingSettingsServiceTest {
@@ -50,15 +76,30 @@ class MessagingSettingsServiceTest {
 	@Mock
 	private MessagingSettingRepository mockMessagingSettingRepository;
 
+	@Mock
+	private MessagingSettingVersionRepository mockMessagingSettingVersionRepository;
+
 	@Mock
 	private EmployeeIntegration mockEmployeeIntegration;
 
+	@Mock
+	private MessagingSettingsSnapshotCache mockSnapshotCache;
+
+	@Mock
+	private ResolvedSettingsCache mockResolvedSettingsCache;
+
 	@Mock
 	private FilterSpecificationConverter filterSpecificationConverterSpy;
 
 	@Captor
 	private ArgumentCaptor<Specification<MessagingSettingEntity>> specificationCaptor;
 
+	@Captor
+	private ArgumentCaptor<List<MessagingSettingEntity>> entitiesCaptor;
+
+	@Captor
+	private ArgumentCaptor<UnaryOperator<List<MessagingSettingValueEmbeddable>>> updateCaptor;
+
 	@InjectMocks
 	private MessagingSettingsService messagingSettingsService;
 
@@ -70,18 +111,18 @@ class MessagingSettingsServiceTest {
 
 	@AfterEach
 	void verifyNoMoreMockInteractions() {
-		verifyNoMoreInteractions(mockMessagingSettingRepository, mockEmployeeIntegration);
+		verifyNoMoreInteractions(mockMessagingSettingRepository, mockMessagingSettingVersionRepository, mockEmployeeIntegration, mockSnapshotCache, mockResolvedSettingsCache);
 	}
 
 	@Test
 	void fetchMessagingSettings() {
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(MessagingSettingEntity.builder().build()));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(MessagingSettings.builder().withValues(List.of()).build()));
 
 		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
 
 		final var result = messagingSettingsService.fetchMessagingSettings(MUNICIPALITY_ID, filter);
 
-		verify(mockMessagingSettingRepository).findAll(specificationCaptor.capture());
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
 
 		assertThat(result).hasSize(1);
 		assertThat(result.getFirst()).hasAllNullFieldsOrPropertiesExcept("values");
@@ -89,24 +130,167 @@ class MessagingSettingsServiceTest {
 		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(filter));
 	}
 
+	@Test
+	void fetchMessagingSettingsWithoutFilterFromSnapshot() {
+		final var snapshot = List.of(MessagingSettings.builder().withId("id").build());
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockSnapshotCache.get(MUNICIPALITY_ID)).thenReturn(snapshot);
+
+		final var result = messagingSettingsService.fetchMessagingSettings(MUNICIPALITY_ID, null);
+
+		assertThat(result).isSameAs(snapshot);
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockSnapshotCache).get(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void fetchMessagingSettingsWithoutFilterWhenSnapshotIsDisabled() {
+		when(mockSnapshotCache.isEnabled()).thenReturn(false);
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(MessagingSettings.builder().withValues(List.of()).build()));
+
+		final var result = messagingSettingsService.fetchMessagingSettings(MUNICIPALITY_ID, null);
+
+		assertThat(result).hasSize(1);
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID));
+	}
+
+	@Test
+	void streamMessagingSettings() {
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
+		when(mockMessagingSettingRepository.streamAll(ArgumentMatchers.any(), eq(500))).thenReturn(Stream.of(
+			MessagingSettingEntity.builder().withId("id-1").build(),
+			MessagingSettingEntity.builder().withId("id-2").build()));
+
+		try (final var result = messagingSettingsService.streamMessagingSettings(MUNICIPALITY_ID, filter)) {
+			assertThat(result).extracting(MessagingSettings::getId).containsExactly("id-1", "id-2");
+		}
+
+		verify(mockMessagingSettingRepository).streamAll(ArgumentMatchers.any(), eq(500));
+	}
+
+	@Test
+	void fetchMessagingSettingsPage() {
+		final var created = OffsetDateTime.parse("2025-05-01T10:00Z");
+		final var settings = List.of(
+			MessagingSettings.builder().withId("id-1").withCreated(created).build(),
+			MessagingSettings.builder().withId("id-2").withCreated(created).build());
+		when(mockMessagingSettingRepository.findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(3))).thenReturn(List.of("id-1", "id-2", "id-3"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id")))).thenReturn(settings);
+
+		final var result = messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, null, 2, null);
+
+		assertThat(result.settings()).extracting(MessagingSettings::getId).containsExactly("id-1", "id-2");
+		assertThat(result.nextCursor()).isEqualTo(new KeysetCursor(created, "id-2").encode());
+		verify(mockMessagingSettingRepository).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(3));
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id")));
+	}
+
+	@Test
+	void fetchMessagingSettingsPageEndingOnSettingWithoutCreated() {
+		final var settings = List.of(MessagingSettings.builder().withId("id-1").build());
+		when(mockMessagingSettingRepository.findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(2))).thenReturn(List.of("id-1", "id-2"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id")))).thenReturn(settings);
+
+		final var result = messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, null, 1, null);
+		messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, null, 1, result.nextCursor());
+
+		assertThat(result.nextCursor()).isEqualTo(new KeysetCursor(null, "id-1").encode());
+		verify(mockMessagingSettingRepository, times(2)).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(2));
+	}
+
+	@Test
+	void fetchMessagingSettingsLastPage() {
+		final var cursor = new KeysetCursor(OffsetDateTime.parse("2025-05-01T10:00Z"), "id-0").encode();
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
+		when(mockMessagingSettingRepository.findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(3))).thenReturn(List.of("id-1"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id"))))
+			.thenReturn(List.of(MessagingSettings.builder().withId("id-1").build()));
+
+		final var result = messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, filter, 2, cursor);
+
+		assertThat(result.settings()).extracting(MessagingSettings::getId).containsExactly("id-1");
+		assertThat(result.nextCursor()).isNull();
+		verify(mockMessagingSettingRepository).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(3));
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id")));
+	}
+
+	@Test
+	void fetchMessagingSettingsPageWithNoMatches() {
+		when(mockMessagingSettingRepository.findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(11))).thenReturn(List.of());
+
+		final var result = messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, null, 10, null);
+
+		assertThat(result.settings()).isEmpty();
+		assertThat(result.nextCursor()).isNull();
+		verify(mockMessagingSettingRepository).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(11));
+	}
+
+	@Test
+	void fetchMessagingSettingsPageWithInvalidCursor() {
+		assertThatThrownBy(() -> messagingSettingsService.fetchMessagingSettingsPage(MUNICIPALITY_ID, null, 10, "not-a-cursor"))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_REQUEST);
+	}
+
 	@Test
 	void fetchMessagingSettingsForUser() {
 
 		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
 
+		when(mockResolvedSettingsCache.generation(MUNICIPALITY_ID)).thenReturn(7L);
 		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).thenReturn(List.of(new DepartmentInfo("2", "44", "Dept")));
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(MessagingSettingEntity.builder().build()));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(createDepartmentSettings("id", "44")));
 
 		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), filter);
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
-		verify(mockMessagingSettingRepository).findAll(specificationCaptor.capture());
+		verify(mockResolvedSettingsCache).put(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any(), eq(List.of("44")), eq(result), eq(7L));
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
 
 		assertThat(result).hasSize(1);
-		assertThat(result.getFirst()).hasAllNullFieldsOrPropertiesExcept("values");
-		assertThat(result.getFirst().getValues()).isEmpty();
+		assertThat(result.getFirst().getId()).isEqualTo("id");
+		assertThat(result.getFirst().getValues()).hasSize(1);
 		assertThat(specificationCaptor.getAllValues()).hasSize(1);
-		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesDepartmentId("44")).and(filter));
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesDepartmentIds(List.of("44"))).and(filter));
+	}
+
+	@Test
+	void fetchMessagingSettingsForUserFromResolvedSettingsCache() {
+		final var cachedSettings = List.of(MessagingSettings.builder().withId("id").build());
+
+		when(mockResolvedSettingsCache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).thenReturn(Optional.of(cachedSettings));
+
+		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), null);
+
+		assertThat(result).isSameAs(cachedSettings);
+		verify(mockResolvedSettingsCache).get(MUNICIPALITY_ID, LOGIN_NAME, null);
+	}
+
+	@Test
+	void fetchMessagingSettingsForUserFromStaleDataIsNotCached() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+		RequestContextHolder.currentRequestAttributes().setAttribute(STALE_DATA_ATTRIBUTE, true, SCOPE_REQUEST);
+
+		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).thenReturn(List.of(new DepartmentInfo("2", "44", "Dept")));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(createDepartmentSettings("id", "44")));
+
+		try {
+			final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), null);
+
+			assertThat(result).hasSize(1);
+			verify(mockResolvedSettingsCache).get(MUNICIPALITY_ID, LOGIN_NAME, null);
+			verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
+			verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+			verify(mockSnapshotCache).isEnabled();
+			verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+		} finally {
+			RequestContextHolder.resetRequestAttributes();
+		}
 	}
 
 	@Test
@@ -122,6 +306,8 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging settings not found for municipality with ID '2281' and user 'testUser'.");
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
 	}
 
@@ -131,7 +317,7 @@ class MessagingSettingsServiceTest {
 		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
 
 		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).thenReturn(List.of(new DepartmentInfo("2", "44", "Dept")));
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of());
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of());
 
 		final var identifier = Identifier.parse(X_SENT_BY);
 		assertThatThrownBy(() -> messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, identifier, filter))
@@ -139,10 +325,13 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging settings not found for municipality with ID '2281' and user 'testUser'.");
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
-		verify(mockMessagingSettingRepository).findAll(specificationCaptor.capture());
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
 
-		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesDepartmentId("44")).and(filter));
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesDepartmentIds(List.of("44"))).and(filter));
 	}
 
 	@Test
@@ -153,17 +342,22 @@ class MessagingSettingsServiceTest {
 		// Return 2 departments: level 2 first (no settings), then level 1 (has settings)
 		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME))
 			.thenReturn(List.of(new DepartmentInfo("2", "44", "Dept"), new DepartmentInfo("1", "11", "Org")));
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
-			.thenReturn(List.of()) // First call returns empty (level 2 has no settings)
-			.thenReturn(List.of(MessagingSettingEntity.builder().build())); // The second call returns settings (level 1)
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of(createDepartmentSettings("id-11", "11"))); // Only level 1 has settings
 
 		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), filter);
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
-		verify(mockMessagingSettingRepository, times(2)).findAll(specificationCaptor.capture());
+		verify(mockResolvedSettingsCache).put(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any(), eq(List.of("44", "11")), eq(result), eq(0L));
+		verify(mockSnapshotCache).isEnabled();
+		// All levels are resolved in a single query
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
 
 		assertThat(result).hasSize(1);
-		assertThat(specificationCaptor.getAllValues()).hasSize(2);
+		assertThat(result.getFirst().getId()).isEqualTo("id-11");
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesDepartmentIds(List.of("44", "11"))).and(filter));
 	}
 
 	@Test
@@ -171,19 +365,24 @@ class MessagingSettingsServiceTest {
 
 		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
 
-		// Return 2 departments: level 2 first (has settings), then level 1
+		// Return 2 departments: level 2 first (has settings), then level 1 (has settings)
 		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME))
 			.thenReturn(List.of(new DepartmentInfo("2", "44", "Dept"), new DepartmentInfo("1", "11", "Org")));
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
-			.thenReturn(List.of(MessagingSettingEntity.builder().build())); // The first call returns settings
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of(createDepartmentSettings("id-11", "11"), createDepartmentSettings("id-44", " 44 ")));
 
 		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), filter);
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
-		// findAll should only be called once since level 2 had settings
-		verify(mockMessagingSettingRepository, times(1)).findAll(specificationCaptor.capture());
+		verify(mockResolvedSettingsCache).put(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any(), eq(List.of("44", "11")), eq(result), eq(0L));
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
 
+		// Level 2 takes precedence over level 1
 		assertThat(result).hasSize(1);
+		assertThat(result.getFirst().getId()).isEqualTo("id-44");
 		assertThat(specificationCaptor.getAllValues()).hasSize(1);
 	}
 
@@ -195,8 +394,8 @@ class MessagingSettingsServiceTest {
 		// Return 2 departments but no settings at any level
 		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME))
 			.thenReturn(List.of(new DepartmentInfo("2", "44", "Dept"), new DepartmentInfo("1", "11", "Org")));
-		when(mockMessagingSettingRepository.findAll(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
-			.thenReturn(List.of()); // Both calls return empty
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of());
 
 		final var identifier = Identifier.parse(X_SENT_BY);
 		assertThatThrownBy(() -> messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, identifier, filter))
@@ -204,10 +403,79 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging settings not found for municipality with ID '2281' and user 'testUser'.");
 
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
 		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
-		verify(mockMessagingSettingRepository, times(2)).findAll(specificationCaptor.capture());
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
+
+		assertThat(specificationCaptor.getAllValues()).hasSize(1);
+	}
 
-		assertThat(specificationCaptor.getAllValues()).hasSize(2);
+	@Test
+	void fetchMessagingSettingsForUserFromDepartmentIndex() {
+		final var indexedSettings = List.of(MessagingSettings.builder().withId("id").build());
+
+		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME))
+			.thenReturn(List.of(new DepartmentInfo("2", "44", "Dept"), new DepartmentInfo("1", "11", "Org")));
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockSnapshotCache.getByDepartmentId(MUNICIPALITY_ID, "44")).thenReturn(List.of());
+		when(mockSnapshotCache.getByDepartmentId(MUNICIPALITY_ID, "11")).thenReturn(indexedSettings);
+
+		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), null);
+
+		assertThat(result).isSameAs(indexedSettings);
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
+		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+		verify(mockResolvedSettingsCache).put(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any(), eq(List.of("44", "11")), eq(result), eq(0L));
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockSnapshotCache).getByDepartmentId(MUNICIPALITY_ID, "44");
+		verify(mockSnapshotCache).getByDepartmentId(MUNICIPALITY_ID, "11");
+	}
+
+	@Test
+	void fetchMessagingSettingsForUserFromDepartmentIndexWithFilter() {
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
+
+		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).thenReturn(List.of(new DepartmentInfo("2", "44", "Dept")));
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockSnapshotCache.getByDepartmentId(MUNICIPALITY_ID, "44")).thenReturn(List.of(MessagingSettings.builder().withId("id").build()));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(createDepartmentSettings("id", "44")));
+
+		final var result = messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, Identifier.parse(X_SENT_BY), filter);
+
+		assertThat(result).hasSize(1);
+		assertThat(result.getFirst().getId()).isEqualTo("id");
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
+		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+		verify(mockResolvedSettingsCache).put(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any(), eq(List.of("44")), eq(result), eq(0L));
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockSnapshotCache).getByDepartmentId(MUNICIPALITY_ID, "44");
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesIds(List.of("id"))).and(filter));
+	}
+
+	@Test
+	void fetchMessagingSettingsForUserFromDepartmentIndexWithNoMatch() {
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NAMESPACE'");
+
+		when(mockEmployeeIntegration.getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME)).thenReturn(List.of(new DepartmentInfo("2", "44", "Dept")));
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockSnapshotCache.getByDepartmentId(MUNICIPALITY_ID, "44")).thenReturn(List.of());
+
+		final var identifier = Identifier.parse(X_SENT_BY);
+		assertThatThrownBy(() -> messagingSettingsService.fetchMessagingSettingsForUser(MUNICIPALITY_ID, identifier, filter))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
+			.hasMessage("Not Found: Messaging settings not found for municipality with ID '2281' and user 'testUser'.");
+
+		verify(mockResolvedSettingsCache).get(eq(MUNICIPALITY_ID), eq(LOGIN_NAME), any());
+		verify(mockResolvedSettingsCache).generation(MUNICIPALITY_ID);
+		verify(mockEmployeeIntegration).getDepartmentInfos(MUNICIPALITY_ID, LOGIN_NAME);
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockSnapshotCache).getByDepartmentId(MUNICIPALITY_ID, "44");
 	}
 
 	@Test
@@ -248,6 +516,133 @@ class MessagingSettingsServiceTest {
 		assertThat(result.getValues().getFirst().getType()).isEqualTo("STRING");
 
 		verify(mockMessagingSettingRepository).save(ArgumentMatchers.any(MessagingSettingEntity.class));
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, List.of(), "generated-id");
+	}
+
+	@Test
+	void deleteMessagingSettingRefreshesCachesAfterCommit() {
+		// Arrange
+		final var id = "test-id";
+
+		when(mockMessagingSettingRepository.deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(1);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			// Act
+			messagingSettingsService.deleteMessagingSetting(MUNICIPALITY_ID, id);
+
+			// Assert
+			verify(mockMessagingSettingRepository).deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+			verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+			verifyNoInteractions(mockSnapshotCache, mockResolvedSettingsCache);
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+			verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+			verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, List.of(), id);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void createMessagingSettings() {
+		// Arrange
+		final var requests = List.of(
+			MessagingSettingsRequest.builder()
+				.withValues(List.of(
+					MessagingSettingValueRequest.builder()
+						.withKey("department_id")
+						.withValue("400")
+						.withType("NUMERIC")
+						.build()))
+				.build(),
+			MessagingSettingsRequest.builder()
+				.withValues(List.of(
+					MessagingSettingValueRequest.builder()
+						.withKey("department_name")
+						.withValue("IT Department")
+						.withType("STRING")
+						.build()))
+				.build());
+
+		when(mockMessagingSettingRepository.saveAll(ArgumentMatchers.<List<MessagingSettingEntity>>any())).thenAnswer(invocation -> {
+			final List<MessagingSettingEntity> entities = invocation.getArgument(0);
+			for (var i = 0; i < entities.size(); i++) {
+				entities.get(i).setId("generated-id-" + i);
+			}
+			return entities;
+		});
+
+		// Act
+		final var result = messagingSettingsService.createMessagingSettings(MUNICIPALITY_ID, requests);
+
+		// Assert
+		assertThat(result).containsExactly("generated-id-0", "generated-id-1");
+
+		verify(mockMessagingSettingRepository).saveAll(entitiesCaptor.capture());
+		assertThat(entitiesCaptor.getValue()).hasSize(2)
+			.allSatisfy(entity -> assertThat(entity.getMunicipalityId()).isEqualTo(MUNICIPALITY_ID));
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, List.of("400"), null);
+	}
+
+	@Test
+	void updateMessagingSettings() {
+		// Arrange
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NS1'");
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(
+				MessagingSettingValueRequest.builder()
+					.withKey("sms_sender")
+					.withValue("SUNDSVALL")
+					.withType("STRING")
+					.build()))
+			.build();
+
+		when(mockMessagingSettingRepository.upsertValues(any(), any())).thenReturn(2);
+
+		// Act
+		final var result = messagingSettingsService.updateMessagingSettings(MUNICIPALITY_ID, filter, request);
+
+		// Assert
+		assertThat(result).isEqualTo(2);
+
+		verify(mockMessagingSettingRepository).upsertValues(any(), eq(List.of(MessagingSettingValueEmbeddable.builder()
+			.withKey("sms_sender")
+			.withValue("SUNDSVALL")
+			.withType(STRING)
+			.build())));
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).invalidate(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void updateMessagingSettingsWithoutMatchingSettings() {
+		// Arrange
+		final Specification<MessagingSettingEntity> filter = filterSpecificationConverterSpy.convert("values.key: 'namespace' and values.value: 'NS9'");
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(
+				MessagingSettingValueRequest.builder()
+					.withKey("sms_sender")
+					.withValue("SUNDSVALL")
+					.withType("STRING")
+					.build()))
+			.build();
+
+		when(mockMessagingSettingRepository.upsertValues(any(), any())).thenReturn(0);
+
+		// Act
+		final var result = messagingSettingsService.updateMessagingSettings(MUNICIPALITY_ID, filter, request);
+
+		// Assert
+		assertThat(result).isZero();
+
+		verify(mockMessagingSettingRepository).upsertValues(any(), any());
 	}
 
 	@Test
@@ -265,7 +660,7 @@ class MessagingSettingsServiceTest {
 					.build()))
 			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.of(entity));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(toMessagingSettings(entity)));
 
 		// Act
 		final var result = messagingSettingsService.getMessagingSettingById(MUNICIPALITY_ID, id);
@@ -276,14 +671,15 @@ class MessagingSettingsServiceTest {
 		assertThat(result.getMunicipalityId()).isEqualTo(MUNICIPALITY_ID);
 		assertThat(result.getValues()).hasSize(1);
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(specificationCaptor.capture());
+		assertThat(specificationCaptor.getValue()).usingRecursiveComparison().isEqualTo(matchesMunicipalityId(MUNICIPALITY_ID).and(matchesIds(List.of(id))));
 	}
 
 	@Test
 	void getMessagingSettingByIdNotFound() {
 		// Arrange
 		final var id = "non-existent-id";
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of());
 
 		// Act & Assert
 		assertThatThrownBy(() -> messagingSettingsService.getMessagingSettingById(MUNICIPALITY_ID, id))
@@ -291,7 +687,7 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging setting not found for municipality with ID '2281' and ID 'non-existent-id'.");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
 	}
 
 	@Test
@@ -307,7 +703,7 @@ class MessagingSettingsServiceTest {
 					.build()))
 			.build();
 
-		final var existingEntity = MessagingSettingEntity.builder()
+		final var previousEntity = MessagingSettingEntity.builder()
 			.withId(id)
 			.withMunicipalityId(MUNICIPALITY_ID)
 			.withValues(new ArrayList<>(List.of(
@@ -329,8 +725,8 @@ class MessagingSettingsServiceTest {
 					.build()))
 			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.of(existingEntity));
-		when(mockMessagingSettingRepository.save(ArgumentMatchers.any(MessagingSettingEntity.class))).thenReturn(updatedEntity);
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), updateCaptor.capture())).thenReturn(Optional.of(previousEntity));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(any())).thenReturn(List.of(toMessagingSettings(updatedEntity)));
 
 		// Act
 		final var result = messagingSettingsService.updateMessagingSetting(MUNICIPALITY_ID, id, request);
@@ -342,8 +738,42 @@ class MessagingSettingsServiceTest {
 		assertThat(result.getValues()).hasSize(1);
 		assertThat(result.getValues().getFirst().getValue()).isEqualTo("Updated Department");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
-		verify(mockMessagingSettingRepository).save(ArgumentMatchers.any(MessagingSettingEntity.class));
+		assertThat(updateCaptor.getValue().apply(previousEntity.getValues()))
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue)
+			.containsExactly(tuple("department_name", "Updated Department"));
+
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(any());
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, Set.of(), id);
+	}
+
+	@Test
+	void updateMessagingSettingEvictsPreviousAndCurrentDepartments() {
+		// Arrange
+		final var id = "test-id";
+		final var request = MessagingSettingsRequest.builder()
+			.withValues(List.of(
+				MessagingSettingValueRequest.builder()
+					.withKey("department_id")
+					.withValue("44")
+					.withType("STRING")
+					.build()))
+			.build();
+
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), any())).thenReturn(Optional.of(createDepartmentEntity(id, "11")));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(any())).thenReturn(List.of(createDepartmentSettings(id, "44")));
+
+		// Act
+		messagingSettingsService.updateMessagingSetting(MUNICIPALITY_ID, id, request);
+
+		// Assert
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(any());
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, Set.of("11", "44"), id);
 	}
 
 	@Test
@@ -354,7 +784,7 @@ class MessagingSettingsServiceTest {
 			.withValues(List.of())
 			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), any())).thenReturn(Optional.empty());
 
 		// Act & Assert
 		assertThatThrownBy(() -> messagingSettingsService.updateMessagingSetting(MUNICIPALITY_ID, id, request))
@@ -362,33 +792,107 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging setting not found for municipality with ID '2281' and ID 'non-existent-id'.");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+	}
+
+	@Test
+	void patchMessagingSetting() {
+		// Arrange
+		final var id = "test-id";
+		final var patch = JsonMapper.builder().build().readTree("""
+			[
+				{"op": "test", "path": "/department_id/value", "value": "11"},
+				{"op": "replace", "path": "/department_id/value", "value": "44"}
+			]
+			""");
+		final var previousEntity = createDepartmentEntity(id, "11");
+
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), updateCaptor.capture())).thenReturn(Optional.of(previousEntity));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(any())).thenReturn(List.of(createDepartmentSettings(id, "44")));
+
+		// Act
+		final var result = messagingSettingsService.patchMessagingSetting(MUNICIPALITY_ID, id, patch);
+
+		// Assert
+		assertThat(result.getId()).isEqualTo(id);
+		assertThat(updateCaptor.getValue().apply(previousEntity.getValues()))
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue)
+			.containsExactly(tuple("department_id", "44"));
+
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(any());
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, Set.of("11", "44"), id);
+	}
+
+	@Test
+	void patchMessagingSettingNotFound() {
+		// Arrange
+		final var id = "non-existent-id";
+		final var patch = JsonMapper.builder().build().readTree("[]");
+
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), any())).thenReturn(Optional.empty());
+
+		// Act & Assert
+		assertThatThrownBy(() -> messagingSettingsService.patchMessagingSetting(MUNICIPALITY_ID, id, patch))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
+			.hasMessage("Not Found: Messaging setting not found for municipality with ID '2281' and ID 'non-existent-id'.");
+
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+	}
+
+	@Test
+	void mergePatchMessagingSetting() {
+		// Arrange
+		final var id = "test-id";
+		final var patch = JsonMapper.builder().build().readTree("""
+			{"department_id": {"value": "44"}, "department_name": null, "sms_enabled": {"value": "true", "type": "BOOLEAN"}}
+			""");
+		final var previousEntity = createDepartmentEntity(id, "11");
+
+		when(mockMessagingSettingRepository.updateValues(eq(MUNICIPALITY_ID), eq(id), updateCaptor.capture())).thenReturn(Optional.of(previousEntity));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(any())).thenReturn(List.of(createDepartmentSettings(id, "44")));
+
+		// Act
+		final var result = messagingSettingsService.mergePatchMessagingSetting(MUNICIPALITY_ID, id, patch);
+
+		// Assert
+		assertThat(result.getId()).isEqualTo(id);
+		assertThat(updateCaptor.getValue().apply(previousEntity.getValues()))
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue)
+			.containsExactly(tuple("department_id", "44"), tuple("sms_enabled", "true"));
+
+		verify(mockMessagingSettingRepository).updateValues(eq(MUNICIPALITY_ID), eq(id), any());
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(any());
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, Set.of("11", "44"), id);
 	}
 
 	@Test
 	void deleteMessagingSetting() {
 		// Arrange
 		final var id = "test-id";
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(MUNICIPALITY_ID)
-			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.of(entity));
+		when(mockMessagingSettingRepository.deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(1);
 
 		// Act
 		messagingSettingsService.deleteMessagingSetting(MUNICIPALITY_ID, id);
 
 		// Assert
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
-		verify(mockMessagingSettingRepository).delete(entity);
+		verify(mockMessagingSettingRepository).deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, List.of(), id);
 	}
 
 	@Test
 	void deleteMessagingSettingNotFound() {
 		// Arrange
 		final var id = "non-existent-id";
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(mockMessagingSettingRepository.deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(0);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messagingSettingsService.deleteMessagingSetting(MUNICIPALITY_ID, id))
@@ -396,7 +900,7 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging setting not found for municipality with ID '2281' and ID 'non-existent-id'.");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).deleteByIdAndMunicipalityId(id, MUNICIPALITY_ID);
 	}
 
 	@Test
@@ -404,34 +908,20 @@ class MessagingSettingsServiceTest {
 		// Arrange
 		final var id = "test-id";
 		final var keyToDelete = "department_name";
-		final var remainingKey = "sms_enabled";
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(MUNICIPALITY_ID)
-			.withValues(new ArrayList<>(List.of(
-				MessagingSettingValueEmbeddable.builder()
-					.withKey(keyToDelete)
-					.withValue("IT Department")
-					.withType(se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING)
-					.build(),
-				MessagingSettingValueEmbeddable.builder()
-					.withKey(remainingKey)
-					.withValue("true")
-					.withType(se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.BOOLEAN)
-					.build())))
-			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.of(entity));
-		when(mockMessagingSettingRepository.save(ArgumentMatchers.any(MessagingSettingEntity.class))).thenReturn(entity);
+		when(mockMessagingSettingRepository.findDepartmentIdsByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(List.of("44"));
+		when(mockMessagingSettingRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete)).thenReturn(1);
 
 		// Act
 		messagingSettingsService.deleteMessagingSettingKey(MUNICIPALITY_ID, id, keyToDelete);
 
 		// Assert
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
-		verify(mockMessagingSettingRepository).save(ArgumentMatchers.any(MessagingSettingEntity.class));
-		assertThat(entity.getValues()).hasSize(1);
-		assertThat(entity.getValues().getFirst().getKey()).isEqualTo(remainingKey);
+		final var inOrder = inOrder(mockMessagingSettingRepository);
+		inOrder.verify(mockMessagingSettingRepository).findDepartmentIdsByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		inOrder.verify(mockMessagingSettingRepository).deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete);
+		verify(mockMessagingSettingVersionRepository).incrementVersion(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		verify(mockResolvedSettingsCache).evict(MUNICIPALITY_ID, List.of("44"), id);
 	}
 
 	@Test
@@ -439,18 +929,9 @@ class MessagingSettingsServiceTest {
 		// Arrange
 		final var id = "test-id";
 		final var keyToDelete = "non_existent_key";
-		final var entity = MessagingSettingEntity.builder()
-			.withId(id)
-			.withMunicipalityId(MUNICIPALITY_ID)
-			.withValues(new ArrayList<>(List.of(
-				MessagingSettingValueEmbeddable.builder()
-					.withKey("department_name")
-					.withValue("IT Department")
-					.withType(se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING)
-					.build())))
-			.build();
 
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.of(entity));
+		when(mockMessagingSettingRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete)).thenReturn(0);
+		when(mockMessagingSettingRepository.existsByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(true);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messagingSettingsService.deleteMessagingSettingKey(MUNICIPALITY_ID, id, keyToDelete))
@@ -458,7 +939,9 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Key 'non_existent_key' not found in messaging setting with ID 'test-id' for municipality '2281'.");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findDepartmentIdsByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete);
+		verify(mockMessagingSettingRepository).existsByIdAndMunicipalityId(id, MUNICIPALITY_ID);
 	}
 
 	@Test
@@ -466,7 +949,9 @@ class MessagingSettingsServiceTest {
 		// Arrange
 		final var id = "non-existent-id";
 		final var keyToDelete = "department_name";
-		when(mockMessagingSettingRepository.findByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(Optional.empty());
+
+		when(mockMessagingSettingRepository.deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete)).thenReturn(0);
+		when(mockMessagingSettingRepository.existsByIdAndMunicipalityId(id, MUNICIPALITY_ID)).thenReturn(false);
 
 		// Act & Assert
 		assertThatThrownBy(() -> messagingSettingsService.deleteMessagingSettingKey(MUNICIPALITY_ID, id, keyToDelete))
@@ -474,6 +959,24 @@ class MessagingSettingsServiceTest {
 			.hasFieldOrPropertyWithValue("status", NOT_FOUND)
 			.hasMessage("Not Found: Messaging setting not found for municipality with ID '2281' and ID 'non-existent-id'.");
 
-		verify(mockMessagingSettingRepository).findByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findDepartmentIdsByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).deleteValuesByIdAndMunicipalityIdAndKey(id, MUNICIPALITY_ID, keyToDelete);
+		verify(mockMessagingSettingRepository).existsByIdAndMunicipalityId(id, MUNICIPALITY_ID);
+	}
+
+	private static MessagingSettingEntity createDepartmentEntity(final String id, final String departmentId) {
+		return MessagingSettingEntity.builder()
+			.withId(id)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withValues(List.of(MessagingSettingValueEmbeddable.builder()
+				.withKey("department_id")
+				.withValue(departmentId)
+				.withType(STRING)
+				.build()))
+			.build();
+	}
+
+	private static MessagingSettings createDepartmentSettings(final String id, final String departmentId) {
+		return toMessagingSettings(createDepartmentEntity(id, departmentId));
 	}
 }
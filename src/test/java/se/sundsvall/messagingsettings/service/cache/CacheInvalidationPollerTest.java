@@ -0,0 +1,129 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messagingsettings.service.cache.CacheInvalidationPoller.METRIC_INVALIDATIONS;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationPollerTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String OTHER_MUNICIPALITY_ID = "2260";
+
+	@Mock
+	private MessagingSettingVersionRepository mockMessagingSettingVersionRepository;
+
+	@Mock
+	private MessagingSettingsSnapshotCache mockSnapshotCache;
+
+	@Mock
+	private ResolvedSettingsCache mockResolvedSettingsCache;
+
+	private MeterRegistry meterRegistry;
+
+	private CacheInvalidationPoller poller;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		poller = new CacheInvalidationPoller(mockMessagingSettingVersionRepository, mockSnapshotCache, mockResolvedSettingsCache, meterRegistry);
+	}
+
+	@AfterEach
+	void verifyNoMoreMockInteractions() {
+		verifyNoMoreInteractions(mockMessagingSettingVersionRepository, mockSnapshotCache, mockResolvedSettingsCache);
+	}
+
+	@Test
+	void pollInvalidatesChangedMunicipalities() {
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockMessagingSettingVersionRepository.findAll())
+			.thenReturn(List.of(createVersion(MUNICIPALITY_ID, 1), createVersion(OTHER_MUNICIPALITY_ID, 1)))
+			.thenReturn(List.of(createVersion(MUNICIPALITY_ID, 2), createVersion(OTHER_MUNICIPALITY_ID, 1)));
+
+		// First poll invalidates all municipalities, second poll only the changed one
+		poller.poll();
+		poller.poll();
+
+		verify(mockSnapshotCache, times(2)).isEnabled();
+		verify(mockMessagingSettingVersionRepository, times(2)).findAll();
+		verify(mockSnapshotCache).invalidate(MUNICIPALITY_ID, 1L);
+		verify(mockSnapshotCache).invalidate(MUNICIPALITY_ID, 2L);
+		verify(mockResolvedSettingsCache, times(2)).invalidate(MUNICIPALITY_ID);
+		verify(mockSnapshotCache).invalidate(OTHER_MUNICIPALITY_ID, 1L);
+		verify(mockResolvedSettingsCache).invalidate(OTHER_MUNICIPALITY_ID);
+		assertThat(meterRegistry.get(METRIC_INVALIDATIONS).counter().count()).isEqualTo(3);
+	}
+
+	@Test
+	void pollWithUnchangedVersions() {
+		when(mockResolvedSettingsCache.isEnabled()).thenReturn(true);
+		when(mockMessagingSettingVersionRepository.findAll()).thenReturn(List.of(createVersion(MUNICIPALITY_ID, 5)));
+
+		poller.poll();
+		poller.poll();
+
+		verify(mockSnapshotCache, times(2)).isEnabled();
+		verify(mockResolvedSettingsCache, times(2)).isEnabled();
+		verify(mockMessagingSettingVersionRepository, times(2)).findAll();
+		verify(mockSnapshotCache).invalidate(MUNICIPALITY_ID, 5L);
+		verify(mockResolvedSettingsCache).invalidate(MUNICIPALITY_ID);
+		assertThat(meterRegistry.get(METRIC_INVALIDATIONS).counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void pollAfterRecordingVersions() {
+		when(mockSnapshotCache.isEnabled()).thenReturn(true);
+		when(mockMessagingSettingVersionRepository.findAll())
+			.thenReturn(List.of(createVersion(MUNICIPALITY_ID, 1)))
+			.thenReturn(List.of(createVersion(MUNICIPALITY_ID, 1), createVersion(OTHER_MUNICIPALITY_ID, 1)));
+
+		// Only the municipality getting its first version after the versions were recorded is invalidated
+		poller.recordVersions();
+		poller.poll();
+
+		verify(mockSnapshotCache, times(2)).isEnabled();
+		verify(mockMessagingSettingVersionRepository, times(2)).findAll();
+		verify(mockSnapshotCache).invalidate(OTHER_MUNICIPALITY_ID, 1L);
+		verify(mockResolvedSettingsCache).invalidate(OTHER_MUNICIPALITY_ID);
+		assertThat(meterRegistry.get(METRIC_INVALIDATIONS).counter().count()).isOne();
+	}
+
+	@Test
+	void recordVersionsWhenCachesAreDisabled() {
+		poller.recordVersions();
+
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockResolvedSettingsCache).isEnabled();
+	}
+
+	@Test
+	void pollWhenCachesAreDisabled() {
+		poller.poll();
+
+		verify(mockSnapshotCache).isEnabled();
+		verify(mockResolvedSettingsCache).isEnabled();
+	}
+
+	private static MessagingSettingVersionEntity createVersion(final String municipalityId, final long version) {
+		return MessagingSettingVersionEntity.builder()
+			.withMunicipalityId(municipalityId)
+			.withVersion(version)
+			.build();
+	}
+}
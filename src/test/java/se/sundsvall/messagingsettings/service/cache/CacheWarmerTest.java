@@ -0,0 +1,163 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.employee.configuration.EmployeeProperties;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
+import static se.sundsvall.messagingsettings.integration.db.specification.MessagingSettingSpecification.DEPARTMENT_ID;
+import static se.sundsvall.messagingsettings.service.cache.CacheWarmer.METRIC_WARMUP;
+import static se.sundsvall.messagingsettings.service.cache.CacheWarmer.PAGE_SIZE;
+import static se.sundsvall.messagingsettings.service.cache.CacheWarmer.METRIC_WARMUP_FAILURES;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String OTHER_MUNICIPALITY_ID = "2260";
+
+	@Mock
+	private MessagingSettingRepository mockMessagingSettingRepository;
+
+	@Mock
+	private MessagingSettingsSnapshotCache mockSnapshotCache;
+
+	@Mock
+	private CacheInvalidationPoller mockInvalidationPoller;
+
+	@Mock
+	private EmployeeProperties mockEmployeeProperties;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void verifyNoMoreMockInteractions() {
+		verifyNoMoreInteractions(mockMessagingSettingRepository, mockSnapshotCache, mockInvalidationPoller, mockEmployeeProperties);
+	}
+
+	@Test
+	void run() {
+		final var settings = MessagingSettings.builder()
+			.withId("id")
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withValues(List.of(MessagingSettingValue.builder().withKey(DEPARTMENT_ID).withValue("44").withType(STRING.name()).build()))
+			.build();
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, "PERSONAL"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of(settings));
+		when(mockMessagingSettingRepository.findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(PAGE_SIZE))).thenReturn(List.of("id"));
+
+		createWarmer(true, 3).run(null);
+
+		// Each iteration reads all settings of the municipality, the settings of its departments and the first page of settings
+		verify(mockInvalidationPoller).recordVersions();
+		verify(mockEmployeeProperties).domains();
+		verify(mockMessagingSettingRepository, times(6)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+		verify(mockMessagingSettingRepository, times(3)).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(PAGE_SIZE));
+		verify(mockMessagingSettingRepository, times(3)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any(), eq(Sort.by("created", "id")));
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		assertThat(meterRegistry.get(METRIC_WARMUP).timer().count()).isOne();
+		assertThat(meterRegistry.get(METRIC_WARMUP_FAILURES).counter().count()).isZero();
+	}
+
+	@Test
+	void runWhenMunicipalityHasNoDepartments() {
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, "PERSONAL"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of());
+
+		createWarmer(true, 2).run(null);
+
+		verify(mockInvalidationPoller).recordVersions();
+		verify(mockEmployeeProperties).domains();
+		verify(mockMessagingSettingRepository, times(2)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+		verify(mockMessagingSettingRepository, times(2)).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(PAGE_SIZE));
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void runWhenWarmupOfMunicipalityFails() {
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, "PERSONAL", OTHER_MUNICIPALITY_ID, "ANGEDOMAIN"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenThrow(new IllegalStateException("Database unavailable"))
+			.thenReturn(List.of());
+
+		createWarmer(true, 1).run(null);
+
+		verify(mockInvalidationPoller).recordVersions();
+		verify(mockEmployeeProperties).domains();
+		verify(mockMessagingSettingRepository, times(2)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+		verify(mockMessagingSettingRepository).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(PAGE_SIZE));
+		verify(mockSnapshotCache).refresh(ArgumentMatchers.anyString());
+		assertThat(meterRegistry.get(METRIC_WARMUP).timer().count()).isOne();
+		assertThat(meterRegistry.get(METRIC_WARMUP_FAILURES).counter().count()).isOne();
+	}
+
+	@Test
+	void runWhenRecordingVersionsFails() {
+		doThrow(new IllegalStateException("Database unavailable")).when(mockInvalidationPoller).recordVersions();
+		when(mockEmployeeProperties.domains()).thenReturn(Map.of(MUNICIPALITY_ID, "PERSONAL"));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any())).thenReturn(List.of());
+
+		createWarmer(true, 1).run(null);
+
+		verify(mockInvalidationPoller).recordVersions();
+		verify(mockEmployeeProperties).domains();
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+		verify(mockMessagingSettingRepository).findIdsOrderedByCreatedAndId(ArgumentMatchers.any(), eq(PAGE_SIZE));
+		verify(mockSnapshotCache).refresh(MUNICIPALITY_ID);
+		assertThat(meterRegistry.get(METRIC_WARMUP_FAILURES).counter().count()).isOne();
+	}
+
+	@Test
+	void runWhenNoDomainsAreConfigured() {
+		createWarmer(true, 1).run(null);
+
+		verify(mockInvalidationPoller).recordVersions();
+		verify(mockEmployeeProperties).domains();
+		verifyNoInteractions(mockMessagingSettingRepository, mockSnapshotCache);
+	}
+
+	@Test
+	void runWhenDisabled() {
+		createWarmer(false, 1).run(null);
+
+		verify(mockInvalidationPoller).recordVersions();
+		verifyNoInteractions(mockMessagingSettingRepository, mockSnapshotCache, mockEmployeeProperties);
+		assertThat(meterRegistry.get(METRIC_WARMUP).timer().count()).isZero();
+	}
+
+	private CacheWarmer createWarmer(final boolean enabled, final int iterations) {
+		final var cacheProperties = new CacheProperties(new CacheProperties.Snapshot(true), new CacheProperties.Resolved(false, Duration.ofMinutes(1), 100),
+			new CacheProperties.Invalidation(Duration.ofSeconds(10)), new CacheProperties.Warmup(enabled, iterations));
+		return new CacheWarmer(mockMessagingSettingRepository, mockSnapshotCache, mockInvalidationPoller, mockEmployeeProperties, cacheProperties, meterRegistry);
+	}
+}
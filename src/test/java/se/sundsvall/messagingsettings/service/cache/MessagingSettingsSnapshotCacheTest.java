@@ -0,0 +1,199 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings.MessagingSettingValue;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingRepository;
+import se.sundsvall.messagingsettings.integration.db.MessagingSettingVersionRepository;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingVersionEntity;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
+import static se.sundsvall.messagingsettings.service.cache.MessagingSettingsSnapshotCache.METRIC_GETS;
+import static se.sundsvall.messagingsettings.service.cache.MessagingSettingsSnapshotCache.METRIC_REBUILD;
+
+@ExtendWith(MockitoExtension.class)
+class MessagingSettingsSnapshotCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+
+	@Mock
+	private MessagingSettingRepository mockMessagingSettingRepository;
+
+	@Mock
+	private MessagingSettingVersionRepository mockMessagingSettingVersionRepository;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void verifyNoMoreMockInteractions() {
+		verifyNoMoreInteractions(mockMessagingSettingRepository, mockMessagingSettingVersionRepository);
+	}
+
+	@Test
+	void getLoadsSnapshotOnceAndServesItFromMemory() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").withMunicipalityId(MUNICIPALITY_ID).build()));
+
+		final var first = cache.get(MUNICIPALITY_ID);
+		final var second = cache.get(MUNICIPALITY_ID);
+
+		assertThat(first).hasSize(1).isSameAs(second);
+		assertThat(first.getFirst().getId()).isEqualTo("id");
+		assertThat(meterRegistry.get(METRIC_GETS).tag("result", "miss").counter().count()).isOne();
+		assertThat(meterRegistry.get(METRIC_GETS).tag("result", "hit").counter().count()).isOne();
+		assertThat(meterRegistry.get(METRIC_REBUILD).timer().count()).isOne();
+		verify(mockMessagingSettingVersionRepository).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void refreshSwapsInNewSnapshot() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of())
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").build()));
+
+		assertThat(cache.get(MUNICIPALITY_ID)).isEmpty();
+
+		cache.refresh(MUNICIPALITY_ID);
+
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+		assertThat(meterRegistry.get(METRIC_REBUILD).timer().count()).isEqualTo(2);
+		verify(mockMessagingSettingVersionRepository, times(2)).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository, times(2)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void refreshDoesNotReplaceSnapshotOfNewerVersion() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingVersionRepository.findById(MUNICIPALITY_ID))
+			.thenReturn(Optional.of(MessagingSettingVersionEntity.builder().withMunicipalityId(MUNICIPALITY_ID).withVersion(2L).build()))
+			.thenReturn(Optional.of(MessagingSettingVersionEntity.builder().withMunicipalityId(MUNICIPALITY_ID).withVersion(1L).build()))
+			.thenReturn(Optional.of(MessagingSettingVersionEntity.builder().withMunicipalityId(MUNICIPALITY_ID).withVersion(2L).build()));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").build()))
+			.thenReturn(List.of())
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").build(), MessagingSettings.builder().withId("other-id").build()));
+
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+
+		// A load of an older version completing late must not replace the current snapshot
+		cache.refresh(MUNICIPALITY_ID);
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+
+		// A load of the same version does
+		cache.refresh(MUNICIPALITY_ID);
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(2);
+
+		verify(mockMessagingSettingVersionRepository, times(3)).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository, times(3)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void invalidateDiscardsSnapshot() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of())
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").build()));
+
+		assertThat(cache.get(MUNICIPALITY_ID)).isEmpty();
+
+		cache.invalidate(MUNICIPALITY_ID, 0L);
+		assertThat(cache.get(MUNICIPALITY_ID)).isEmpty();
+
+		cache.invalidate(MUNICIPALITY_ID, 1L);
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+		assertThat(meterRegistry.get(METRIC_GETS).tag("result", "miss").counter().count()).isEqualTo(2);
+		verify(mockMessagingSettingVersionRepository, times(2)).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository, times(2)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void invalidateKeepsLateLoadOfOlderVersionFromBeingStored() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingVersionRepository.findById(MUNICIPALITY_ID))
+			.thenReturn(Optional.of(MessagingSettingVersionEntity.builder().withMunicipalityId(MUNICIPALITY_ID).withVersion(1L).build()))
+			.thenReturn(Optional.of(MessagingSettingVersionEntity.builder().withMunicipalityId(MUNICIPALITY_ID).withVersion(2L).build()));
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of())
+			.thenReturn(List.of(MessagingSettings.builder().withId("id").build()));
+
+		cache.invalidate(MUNICIPALITY_ID, 2L);
+
+		// A load of an older version completing after the invalidation is served, but not stored
+		assertThat(cache.get(MUNICIPALITY_ID)).isEmpty();
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+		assertThat(cache.get(MUNICIPALITY_ID)).hasSize(1);
+
+		assertThat(meterRegistry.get(METRIC_GETS).tag("result", "miss").counter().count()).isEqualTo(2);
+		verify(mockMessagingSettingVersionRepository, times(2)).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository, times(2)).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void getByDepartmentId() {
+		final var cache = createCache(true);
+		when(mockMessagingSettingRepository.findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any()))
+			.thenReturn(List.of(
+				createSettings("id-1", "Department_ID", " 44 "),
+				createSettings("id-2", "department_id", "ABC"),
+				createSettings("id-3", "department_name", "44")));
+
+		assertThat(cache.getByDepartmentId(MUNICIPALITY_ID, "44")).extracting(MessagingSettings::getId).containsExactly("id-1");
+		assertThat(cache.getByDepartmentId(MUNICIPALITY_ID, "abc")).extracting(MessagingSettings::getId).containsExactly("id-2");
+		assertThat(cache.getByDepartmentId(MUNICIPALITY_ID, "45")).isEmpty();
+		assertThat(cache.getByDepartmentId(MUNICIPALITY_ID, null)).isEmpty();
+		verify(mockMessagingSettingVersionRepository).findById(MUNICIPALITY_ID);
+		verify(mockMessagingSettingRepository).findAllAsMessagingSettings(ArgumentMatchers.<Specification<MessagingSettingEntity>>any());
+	}
+
+	@Test
+	void refreshWhenDisabled() {
+		final var cache = createCache(false);
+
+		cache.refresh(MUNICIPALITY_ID);
+
+		assertThat(cache.isEnabled()).isFalse();
+	}
+
+	private static MessagingSettings createSettings(final String id, final String key, final String value) {
+		return MessagingSettings.builder()
+			.withId(id)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withValues(List.of(MessagingSettingValue.builder()
+				.withKey(key)
+				.withValue(value)
+				.withType(STRING.name())
+				.build()))
+			.build();
+	}
+
+	private MessagingSettingsSnapshotCache createCache(final boolean enabled) {
+		return new MessagingSettingsSnapshotCache(mockMessagingSettingRepository, mockMessagingSettingVersionRepository, new CacheProperties(new CacheProperties.Snapshot(enabled), new CacheProperties.Resolved(false, Duration.ofMinutes(1), 100), new CacheProperties.Invalidation(Duration.ofSeconds(10)), new CacheProperties.Warmup(false, 1)), meterRegistry);
+	}
+}
@@ -0,0 +1,174 @@
+package se.sundsvall.messagingsettings.service.cache;
+
+import com.turkraft.springfilter.converter.FilterSpecification;
+import com.turkraft.springfilter.converter.FilterStringConverter;
+import com.turkraft.springfilter.parser.node.FilterNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingEntity;
+import se.sundsvall.messagingsettings.service.cache.configuration.CacheProperties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static se.sundsvall.messagingsettings.service.cache.ResolvedSettingsCache.CACHE_NAME;
+
+@ExtendWith(MockitoExtension.class)
+class ResolvedSettingsCacheTest {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String LOGIN_NAME = "joe01doe";
+	private static final List<MessagingSettings> SETTINGS = List.of(MessagingSettings.builder().withId("setting-id").build());
+
+	@Mock
+	private FilterStringConverter mockFilterStringConverter;
+
+	private MeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@Test
+	void putAndGetWithoutFilter() {
+		final var cache = createCache(true);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44", "11"), SETTINGS, 0);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).contains(SETTINGS);
+		assertThat(cache.get(MUNICIPALITY_ID, "otherUser", null)).isEmpty();
+		assertThat(cache.get("2260", LOGIN_NAME, null)).isEmpty();
+		assertThat(meterRegistry.get("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit").functionCounter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void putAndGetWithFilter() {
+		final var cache = createCache(true);
+		final var filter = createFilter("values.key:'namespace'");
+		final var equivalentFilter = createFilter("values.key : 'namespace'");
+		final var otherFilter = createFilter("values.key:'other'");
+
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, filter, List.of("44"), SETTINGS, 0);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, filter)).contains(SETTINGS);
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, equivalentFilter)).contains(SETTINGS);
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, otherFilter)).isEmpty();
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+	}
+
+	@Test
+	void specificationNotCreatedFromFilterIsNotCached() {
+		final var cache = createCache(true);
+		final Specification<MessagingSettingEntity> specification = (_, _, cb) -> cb.and();
+
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, specification, List.of("44"), SETTINGS, 0);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, specification)).isEmpty();
+		verifyNoInteractions(mockFilterStringConverter);
+	}
+
+	@Test
+	void evictByDepartmentId() {
+		final var cache = createCache(true);
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44", "11"), SETTINGS, 0);
+		cache.put(MUNICIPALITY_ID, "otherUser", null, List.of("55"), SETTINGS, 0);
+		cache.put("2260", LOGIN_NAME, null, List.of("11"), SETTINGS, 0);
+
+		cache.evict(MUNICIPALITY_ID, List.of(" 11 "), null);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+		assertThat(cache.get(MUNICIPALITY_ID, "otherUser", null)).contains(SETTINGS);
+		assertThat(cache.get("2260", LOGIN_NAME, null)).contains(SETTINGS);
+	}
+
+	@Test
+	void evictBySettingId() {
+		final var cache = createCache(true);
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, 0);
+		cache.put(MUNICIPALITY_ID, "otherUser", null, List.of("55"), List.of(MessagingSettings.builder().withId("other-id").build()), 0);
+
+		cache.evict(MUNICIPALITY_ID, List.of(), "setting-id");
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+		assertThat(cache.get(MUNICIPALITY_ID, "otherUser", null)).isPresent();
+	}
+
+	@Test
+	void invalidate() {
+		final var cache = createCache(true);
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, 0);
+		cache.put("2260", LOGIN_NAME, null, List.of("44"), SETTINGS, 0);
+
+		cache.invalidate(MUNICIPALITY_ID);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+		assertThat(cache.get("2260", LOGIN_NAME, null)).contains(SETTINGS);
+	}
+
+	@Test
+	void putResolvedBeforeEvictionIsNotCached() {
+		final var cache = createCache(true);
+		final var generation = cache.generation(MUNICIPALITY_ID);
+
+		cache.evict(MUNICIPALITY_ID, List.of("55"), null);
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, generation);
+		cache.put("2260", LOGIN_NAME, null, List.of("44"), SETTINGS, cache.generation("2260"));
+
+		assertThat(cache.generation(MUNICIPALITY_ID)).isEqualTo(generation + 1);
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+		assertThat(cache.get("2260", LOGIN_NAME, null)).contains(SETTINGS);
+	}
+
+	@Test
+	void putResolvedBeforeInvalidationIsNotCached() {
+		final var cache = createCache(true);
+		final var generation = cache.generation(MUNICIPALITY_ID);
+
+		cache.invalidate(MUNICIPALITY_ID);
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, generation);
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, cache.generation(MUNICIPALITY_ID));
+
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).contains(SETTINGS);
+	}
+
+	@Test
+	void disabledCacheNeverCaches() {
+		final var cache = createCache(false);
+
+		cache.put(MUNICIPALITY_ID, LOGIN_NAME, null, List.of("44"), SETTINGS, 0);
+		cache.evict(MUNICIPALITY_ID, List.of("44"), "setting-id");
+
+		assertThat(cache.isEnabled()).isFalse();
+		assertThat(cache.get(MUNICIPALITY_ID, LOGIN_NAME, null)).isEmpty();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Specification<MessagingSettingEntity> createFilter(final String filterString) {
+		final var filterNode = mock(FilterNode.class);
+		final FilterSpecification<MessagingSettingEntity> filter = mock(FilterSpecification.class);
+		when(filter.getFilter()).thenReturn(filterNode);
+		// The converter normalizes filters that differ only in formatting into the same string
+		when(mockFilterStringConverter.convert(filterNode)).thenReturn(filterString.replace(" ", ""));
+		return filter;
+	}
+
+	private ResolvedSettingsCache createCache(final boolean enabled) {
+		final var cacheProperties = new CacheProperties(new CacheProperties.Snapshot(false), new CacheProperties.Resolved(enabled, Duration.ofMinutes(1), 100), new CacheProperties.Invalidation(Duration.ofSeconds(10)), new CacheProperties.Warmup(false, 1));
+		return new ResolvedSettingsCache(cacheProperties, mockFilterStringConverter, meterRegistry);
+	}
+}
@@ -0,0 +1,29 @@
+package se.sundsvall.messagingsettings.service.cache.configuration;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import se.sundsvall.messagingsettings.Application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = Application.class)
+@ActiveProfiles("junit")
+class CachePropertiesTest {
+
+	@Autowired
+	private CacheProperties properties;
+
+	@Test
+	void testProperties() {
+		assertThat(properties.snapshot().enabled()).isTrue();
+		assertThat(properties.resolved().enabled()).isTrue();
+		assertThat(properties.resolved().timeToLive()).isEqualTo(Duration.ofMinutes(1));
+		assertThat(properties.resolved().maximumSize()).isEqualTo(100);
+		assertThat(properties.invalidation().pollInterval()).isEqualTo(Duration.ofSeconds(1));
+		assertThat(properties.warmup().enabled()).isFalse();
+		assertThat(properties.warmup().iterations()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,65 @@
+package se.sundsvall.messagingsettings.service.model;
+
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.messagingsettings.api.model.MessagingSettings;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+class KeysetCursorTest {
+
+	private static final OffsetDateTime CREATED = OffsetDateTime.parse("2025-05-01T10:00:00.123456Z");
+	private static final String ID = "475dcfd4-21d5-4f1d-9aac-fbf247f889b7";
+
+	@Test
+	void encodeAndDecode() {
+		final var cursor = new KeysetCursor(CREATED, ID);
+
+		final var encoded = cursor.encode();
+
+		assertThat(encoded).doesNotContain("=", "+", "/");
+		assertThat(KeysetCursor.decode(encoded)).isEqualTo(cursor);
+	}
+
+	@Test
+	void encodeAndDecodeWithoutCreated() {
+		final var cursor = new KeysetCursor(null, ID);
+
+		assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void of() {
+		final var setting = MessagingSettings.builder()
+			.withId(ID)
+			.withCreated(CREATED)
+			.build();
+
+		assertThat(KeysetCursor.of(setting)).isEqualTo(new KeysetCursor(CREATED, ID));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"not base64 !", "bm8tc2VwYXJhdG9y", "bm90LWEtZGF0ZXxpZA"
+	})
+	void decodeInvalidCursor(final String cursor) {
+		assertThatThrownBy(() -> KeysetCursor.decode(cursor))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_REQUEST)
+			.hasMessageContaining(cursor);
+	}
+
+	@Test
+	void decodeInvalidCursorValues() {
+		// Verify that the encoded values used in decodeInvalidCursor represent what they are expected to represent
+		assertThat(new String(Base64.getUrlDecoder().decode("bm8tc2VwYXJhdG9y"), UTF_8)).isEqualTo("no-separator");
+		assertThat(new String(Base64.getUrlDecoder().decode("bm90LWEtZGF0ZXxpZA"), UTF_8)).isEqualTo("not-a-date|id");
+	}
+}
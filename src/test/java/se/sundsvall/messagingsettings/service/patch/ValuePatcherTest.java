@@ -0,0 +1,179 @@
+package se.sundsvall.messagingsettings.service.patch;
+
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import se.sundsvall.dept44.problem.ThrowableProblem;
+import se.sundsvall.messagingsettings.integration.db.model.MessagingSettingValueEmbeddable;
+import se.sundsvall.messagingsettings.integration.db.model.enums.ValueType;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.BOOLEAN;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.NUMERIC;
+import static se.sundsvall.messagingsettings.integration.db.model.enums.ValueType.STRING;
+
+class ValuePatcherTest {
+
+	private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+	private static final List<MessagingSettingValueEmbeddable> VALUES = List.of(
+		value("department_id", "400", NUMERIC),
+		value("sms_sender", "DEPT44", STRING),
+		value("namespace", "NS1", STRING),
+		value("namespace", "NS2", STRING),
+		value("sms_enabled", "true", BOOLEAN));
+
+	private static Stream<Arguments> jsonPatchArgumentProvider() {
+		return Stream.of(
+			Arguments.of("Add key", """
+				[{"op": "add", "path": "/folder_name", "value": {"value": "folder", "type": "STRING"}}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_sender", "DEPT44", STRING), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING),
+				tuple("sms_enabled", "true", BOOLEAN), tuple("folder_name", "folder", STRING))),
+			Arguments.of("Replace value of key", """
+				[{"op": "replace", "path": "/sms_sender/value", "value": "Sundsvall"}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_sender", "Sundsvall", STRING), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING),
+				tuple("sms_enabled", "true", BOOLEAN))),
+			Arguments.of("Remove keys", """
+				[{"op": "remove", "path": "/sms_sender"}, {"op": "remove", "path": "/namespace"}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_enabled", "true", BOOLEAN))),
+			Arguments.of("Move key", """
+				[{"op": "move", "from": "/sms_sender", "path": "/sms_sender_name"}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING), tuple("sms_enabled", "true", BOOLEAN),
+				tuple("sms_sender_name", "DEPT44", STRING))),
+			Arguments.of("Copy key", """
+				[{"op": "copy", "from": "/sms_sender", "path": "/sms_sender_name"}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_sender", "DEPT44", STRING), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING),
+				tuple("sms_enabled", "true", BOOLEAN), tuple("sms_sender_name", "DEPT44", STRING))),
+			Arguments.of("Test and replace", """
+				[{"op": "test", "path": "/sms_enabled/value", "value": "true"}, {"op": "replace", "path": "/sms_enabled", "value": {"value": "false", "type": "BOOLEAN"}}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_sender", "DEPT44", STRING), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING),
+				tuple("sms_enabled", "false", BOOLEAN))),
+			Arguments.of("Key with escaped characters", """
+				[{"op": "add", "path": "/a~1b~0c", "value": {"value": "escaped", "type": "STRING"}}]
+				""", List.of(
+				tuple("department_id", "400", NUMERIC), tuple("sms_sender", "DEPT44", STRING), tuple("namespace", "NS1", STRING), tuple("namespace", "NS2", STRING),
+				tuple("sms_enabled", "true", BOOLEAN), tuple("a/b~c", "escaped", STRING))));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("jsonPatchArgumentProvider")
+	void applyJsonPatch(final String testDescription, final String patch, final List<?> expectedValues) {
+		final var result = ValuePatcher.applyJsonPatch(VALUES, JSON_MAPPER.readTree(patch));
+
+		assertThat(result)
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue, MessagingSettingValueEmbeddable::getType)
+			.containsExactlyElementsOf(expectedValues.stream().map(org.assertj.core.groups.Tuple.class::cast).toList());
+	}
+
+	@Test
+	void applyJsonPatchWithFailingTest() {
+		final var patch = JSON_MAPPER.readTree("""
+			[{"op": "test", "path": "/sms_sender/value", "value": "DEPT45"}, {"op": "remove", "path": "/sms_sender"}]
+			""");
+
+		assertThatThrownBy(() -> ValuePatcher.applyJsonPatch(VALUES, patch))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", CONFLICT)
+			.hasMessage("Conflict: JSON Patch test failed for path '/sms_sender/value'.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"{\"op\": \"remove\", \"path\": \"/sms_sender\"}",
+		"[{\"op\": \"remove\", \"path\": \"/folder_name\"}]",
+		"[{\"op\": \"replace\", \"path\": \"/folder_name/value\", \"value\": \"folder\"}]",
+		"[{\"op\": \"add\", \"path\": \"/sms_sender/value/nested\", \"value\": \"folder\"}]",
+		"[{\"op\": \"add\", \"path\": \"/folder_name\"}]",
+		"[{\"op\": \"add\", \"path\": \"folder_name\", \"value\": {\"value\": \"folder\", \"type\": \"STRING\"}}]",
+		"[{\"op\": \"add\", \"path\": \"/folder_name\", \"value\": \"folder\"}]",
+		"[{\"op\": \"add\", \"path\": \"/folder_name\", \"value\": {\"value\": \"folder\", \"type\": \"UNKNOWN\"}}]",
+		"[{\"op\": \"add\", \"path\": \"/folder_name\", \"value\": {\"value\": \" \", \"type\": \"STRING\"}}]",
+		"[{\"op\": \"add\", \"path\": \"/folder_name\", \"value\": {\"value\": \"folder\", \"type\": \"STRING\", \"extra\": 1}}]",
+		"[{\"op\": \"remove\", \"path\": \"\"}]",
+		"[{\"op\": \"unknown\", \"path\": \"/sms_sender\"}]",
+		"[{\"path\": \"/sms_sender\"}]"
+	})
+	void applyInvalidJsonPatch(final String patch) {
+		final var patchNode = JSON_MAPPER.readTree(patch);
+
+		assertThatThrownBy(() -> ValuePatcher.applyJsonPatch(VALUES, patchNode))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_REQUEST);
+	}
+
+	@Test
+	void applyMergePatch() {
+		final var patch = JSON_MAPPER.readTree("""
+			{
+				"sms_sender": {"value": "Sundsvall"},
+				"sms_enabled": null,
+				"folder_name": {"value": "folder", "type": "STRING"},
+				"department_id": {"type": "STRING"}
+			}
+			""");
+
+		final var result = ValuePatcher.applyMergePatch(VALUES, patch);
+
+		assertThat(result)
+			.extracting(MessagingSettingValueEmbeddable::getKey, MessagingSettingValueEmbeddable::getValue, MessagingSettingValueEmbeddable::getType)
+			.containsExactly(
+				tuple("department_id", "400", STRING),
+				tuple("sms_sender", "Sundsvall", STRING),
+				tuple("namespace", "NS1", STRING),
+				tuple("namespace", "NS2", STRING),
+				tuple("folder_name", "folder", STRING));
+	}
+
+	@Test
+	void applyMergePatchToKeyWithSeveralValues() {
+		final var patch = JSON_MAPPER.readTree("""
+			{"namespace": {"value": "NS3"}}
+			""");
+
+		final var result = ValuePatcher.applyMergePatch(VALUES, patch);
+
+		assertThat(result)
+			.filteredOn(value -> value.getKey().equals("namespace"))
+			.extracting(MessagingSettingValueEmbeddable::getValue)
+			.containsExactly("NS3");
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"[]",
+		"{\"folder_name\": \"folder\"}",
+		"{\"folder_name\": {\"value\": \"folder\"}}",
+		"{\"sms_sender\": {\"type\": \"UNKNOWN\"}}",
+		"{\"sms_sender\": {\"value\": null}}"
+	})
+	void applyInvalidMergePatch(final String patch) {
+		final var patchNode = JSON_MAPPER.readTree(patch);
+
+		assertThatThrownBy(() -> ValuePatcher.applyMergePatch(VALUES, patchNode))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasFieldOrPropertyWithValue("status", BAD_REQUEST);
+	}
+
+	private static MessagingSettingValueEmbeddable value(final String key, final String value, final ValueType type) {
+		return MessagingSettingValueEmbeddable.builder()
+			.withKey(key)
+			.withValue(value)
+			.withType(type)
+			.build();
+	}
+}
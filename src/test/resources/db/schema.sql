@@ -1,29 +1,55 @@
 
     create table messaging_setting (
         municipality_id varchar(5) not null,
-        created datetime(6),
+        created datetime(6) not null,
         updated datetime(6),
         id varchar(36) not null,
         primary key (id)
     ) engine=InnoDB;
 
     create table messaging_setting_value (
+        value_boolean boolean as (case when `type` = 'BOOLEAN' and lower(trim(`value`)) in ('true', 'false') then lower(trim(`value`)) = 'true' end) stored,
+        value_numeric decimal(38,10) as (case when `type` = 'NUMERIC' and trim(`value`) regexp '^[+-]?[0-9]{1,28}([.][0-9]{1,10})?$' then cast(trim(`value`) as decimal(38,10)) end) stored,
         messaging_setting_id varchar(36) not null,
         `key` varchar(255) not null,
+        key_norm varchar(255) as (lower(trim(`key`))) stored,
         `value` text not null,
+        value_hash char(64) as (sha2(`value`, 256)) stored,
+        value_norm varchar(255) as (left(lower(trim(`value`)), 255)) stored,
+        value_norm_hash char(64) as (sha2(lower(trim(`value`)), 256)) stored,
         `type` enum ('BOOLEAN','NUMERIC','STRING','WEB') not null
     ) engine=InnoDB;
 
-    create index idx_messaging_setting_municipality_id 
-       on messaging_setting (municipality_id);
+    create table messaging_setting_version (
+        municipality_id varchar(5) not null,
+        updated datetime(6),
+        version bigint not null,
+        primary key (municipality_id)
+    ) engine=InnoDB;
+
+    create index idx_messaging_setting_municipality_id_created_id 
+       on messaging_setting (municipality_id, created, id);
 
     create index idx_messaging_setting_value_messaging_setting_id_key 
        on messaging_setting_value (messaging_setting_id, `key`);
 
+    create index idx_messaging_setting_value_key_norm_value_norm 
+       on messaging_setting_value (key_norm, value_norm, messaging_setting_id);
+
+    create index idx_messaging_setting_value_key_norm_value_norm_hash 
+       on messaging_setting_value (key_norm, value_norm_hash, messaging_setting_id);
+
+    create index idx_messaging_setting_value_value_numeric 
+       on messaging_setting_value (value_numeric, key_norm, messaging_setting_id);
+
+    create index idx_messaging_setting_value_key_norm_value_boolean 
+       on messaging_setting_value (key_norm, value_boolean, messaging_setting_id);
+
     alter table if exists messaging_setting_value 
-       add constraint uk_messaging_setting_id_key_value unique (messaging_setting_id, `key`, `value`);
+       add constraint uk_messaging_setting_id_key_value_hash unique (messaging_setting_id, `key`, value_hash);
 
     alter table if exists messaging_setting_value 
        add constraint fk_messaging_setting_value_messaging_setting 
        foreign key (messaging_setting_id) 
-       references messaging_setting (id);
+       references messaging_setting (id) 
+       on delete cascade;
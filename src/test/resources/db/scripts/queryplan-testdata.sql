@@ -0,0 +1,27 @@
+-- 2000 settings spread over 20 municipalities with five values each, which is enough for the optimizer to prefer
+-- indexes over full scans. Rows are generated with the sequence storage engine of MariaDB.
+insert into messaging_setting (id, municipality_id, created, updated)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), concat('1', lpad(seq % 20, 3, '0')), timestamp '2025-01-01 00:00:00' + interval seq minute, timestamp '2025-01-01 00:00:00' + interval seq minute
+from seq_1_to_2000;
+
+insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), 'department_id', 10000 + seq, 'NUMERIC'
+from seq_1_to_2000;
+
+insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), 'department_name', concat('dept', seq), 'STRING'
+from seq_1_to_2000;
+
+insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), 'namespace', concat('NS', seq % 10), 'STRING'
+from seq_1_to_2000;
+
+insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), 'sms_sender', concat('SENDER', seq), 'STRING'
+from seq_1_to_2000;
+
+insert into messaging_setting_value (messaging_setting_id, `key`, `value`, `type`)
+select concat('00000000-0000-4000-8000-', lpad(seq, 12, '0')), 'enabled', if(seq % 2 = 0, 'true', 'false'), 'BOOLEAN'
+from seq_1_to_2000;
+
+analyze table messaging_setting, messaging_setting_value;
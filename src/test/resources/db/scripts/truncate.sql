@@ -1,6 +1,7 @@
 set foreign_key_checks = 0;
 
 truncate table messaging_setting;
+truncate table messaging_setting_version;
 truncate table messaging_setting_value;
 
 set foreign_key_checks = 1;